@@ -0,0 +1,28 @@
+package com.budget.project;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Starts the application against a private in-memory H2 database for benchmarks that need real
+ * JPA metadata or data. Every call gets its own database, so fixtures of one benchmark never leak
+ * into another.
+ */
+public final class BenchmarkContext {
+    private BenchmarkContext() {}
+
+    // passed as arguments, default properties would lose against application-test.yml
+    public static ConfigurableApplicationContext start(String name) {
+        return new SpringApplicationBuilder(ProjectApplication.class)
+                .profiles("test")
+                .run(
+                        "--spring.datasource.url=jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1"
+                                + ";MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE"
+                                + ";DEFAULT_NULL_ORDERING=HIGH",
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.root=WARN",
+                        "--logging.level.com.budget.project=WARN",
+                        "--logging.level.org.hibernate.orm.jdbc.bind=WARN",
+                        "--server.port=0");
+    }
+}
@@ -0,0 +1,110 @@
+package com.budget.project.filter.service;
+
+import com.budget.project.BenchmarkContext;
+import com.budget.project.filter.model.*;
+import com.budget.project.model.db.Transaction;
+import com.budget.project.model.db.User;
+import com.budget.project.service.UserService;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.OffsetDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Predicate building for a balanced filter tree: every inner node has two sub filters and every
+ * leaf compares a field of the transaction and two joined fields. The JPA metamodel comes from
+ * the application started on an in-memory H2 database, no rows are queried.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FilterServiceBenchmark {
+    @Param({"2", "4", "6", "8"})
+    private int depth;
+
+    // without room in the cache every specification compiles its filter again
+    @Param({"0", "1000"})
+    private int plansCacheSize;
+
+    private ConfigurableApplicationContext context;
+    private EntityManager entityManager;
+    private FilterService filterService;
+    private Filter filter;
+    private int leaves;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContext.start("filter");
+        entityManager = context.getBean(EntityManagerFactory.class).createEntityManager();
+        UserService userService = Mockito.mock(UserService.class);
+        Mockito.when(userService.getLoggedUser()).thenReturn(User.builder().id(1L).build());
+        filterService = new FilterService(
+                userService, new SimpleMeterRegistry(), entityManager, plansCacheSize);
+        filter = buildTree(depth);
+    }
+
+    @TearDown
+    public void tearDown() {
+        entityManager.close();
+        context.close();
+    }
+
+    @Benchmark
+    public Object toPredicate() {
+        Specification<Transaction> specification =
+                filterService.getSpecification(filter, Transaction.class);
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Transaction> query = criteriaBuilder.createQuery(Transaction.class);
+        Root<Transaction> root = query.from(Transaction.class);
+        return specification.toPredicate(root, query, criteriaBuilder);
+    }
+
+    private Filter buildTree(int level) {
+        if (level == 0) {
+            return leaf(leaves++);
+        }
+        Set<Filter> subFilters = new HashSet<>();
+        subFilters.add(buildTree(level - 1));
+        subFilters.add(buildTree(level - 1));
+        return Filter.builder()
+                .logicOperator(level % 2 == 0 ? LogicOperator.AND : LogicOperator.OR)
+                .subFilters(subFilters)
+                .build();
+    }
+
+    private Filter leaf(int index) {
+        OffsetDateTime now = OffsetDateTime.now();
+        return Filter.builder()
+                .logicOperator(LogicOperator.AND)
+                .stringFilters(Set.of(
+                        new StringExpression(
+                                "accountFrom.name", StringOperator.CONTAINS, "account " + index),
+                        new StringExpression(
+                                "category.name", StringOperator.EQUALS, "category " + index)))
+                .doubleFilters(Set.of(
+                        new DoubleExpression("amount", NumberOperator.GT, (double) index)))
+                .dateFilters(Set.of(new DateExpression(
+                        "date",
+                        DateOperator.BETWEEN,
+                        List.of(now.minusMonths(1).toString(), now.toString()))))
+                .build();
+    }
+}
@@ -0,0 +1,174 @@
+package com.budget.project.filter.service;
+
+import com.budget.project.BenchmarkContext;
+import com.budget.project.auth.model.dto.AuthInput;
+import com.budget.project.auth.service.AuthService;
+import com.budget.project.filter.model.*;
+import com.budget.project.model.db.Account;
+import com.budget.project.model.db.Category;
+import com.budget.project.model.db.SubCategory;
+import com.budget.project.model.db.Transaction;
+import com.budget.project.model.dto.CustomPage;
+import com.budget.project.model.dto.TransactionRow;
+import com.budget.project.service.TransactionService;
+import com.budget.project.service.UserService;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * A page of a saved view over the transactions of one user, read through the Criteria
+ * specification with the names of the related entities, like a response of the page needs them,
+ * and read as rows with the SQL filter. Both filter on a joined column, an amount and a month.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SqlFilterBenchmark {
+    private static final String EMAIL = "rows@benchmark";
+    private static final long FIRST_ID = 1_000_000;
+    private static final int CATEGORIES = 20;
+
+    @Param({"100000"})
+    private int transactions;
+
+    @Param({"20"})
+    private int size;
+
+    private ConfigurableApplicationContext context;
+    private TransactionTemplate transactionTemplate;
+    private TransactionService transactionService;
+    private CustomPage page;
+    private Filter filter;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContext.start("rows");
+        transactionTemplate =
+                new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        transactionService = context.getBean(TransactionService.class);
+        UserService userService = context.getBean(UserService.class);
+
+        // the benchmark thread is not the one running the setup
+        SecurityContextHolder.setStrategyName(SecurityContextHolder.MODE_GLOBAL);
+        AuthService authService = context.getBean(AuthService.class);
+        authService.register(new AuthInput(EMAIL, "123"));
+        authService.authenticate(new AuthInput(EMAIL, "123"));
+        seed(transactionTemplate.execute(status -> userService.getLoggedUser().getId()));
+        page = new CustomPage(0, size);
+        filter = Filter.builder()
+                .logicOperator(LogicOperator.AND)
+                .stringFilters(Set.of(
+                        new StringExpression("category.name", StringOperator.CONTAINS, "1")))
+                .doubleFilters(Set.of(new DoubleExpression("amount", NumberOperator.GT, 20.0)))
+                .dateFilters(Set.of(new DateExpression(
+                        "date",
+                        DateOperator.BETWEEN,
+                        List.of("2023-06-01T00:00:00Z", "2023-07-01T00:00:00Z"))))
+                .build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        SecurityContextHolder.clearContext();
+        context.close();
+    }
+
+    // a request of its own, the logged user is looked up once per request like in the application
+    @Setup(Level.Invocation)
+    public void startRequest() {
+        RequestContextHolder.setRequestAttributes(
+                new ServletRequestAttributes(new MockHttpServletRequest()));
+    }
+
+    @TearDown(Level.Invocation)
+    public void endRequest() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Benchmark
+    public Object criteria() {
+        return transactionTemplate.execute(status -> transactionService
+                .getTransactionsPage(page, filter)
+                .map(this::toRow)
+                .getContent());
+    }
+
+    @Benchmark
+    public Object sql() {
+        return transactionTemplate.execute(
+                status -> transactionService.getTransactionRows(page, filter));
+    }
+
+    private TransactionRow toRow(Transaction transaction) {
+        return new TransactionRow(
+                transaction.getHash(),
+                transaction.getName(),
+                transaction.getNote(),
+                transaction.getAmount(),
+                transaction.getDate(),
+                transaction.getNeed(),
+                transaction.getTransactionType(),
+                transaction.getCurrency(),
+                name(transaction.getCategory(), Category::getName),
+                name(transaction.getSubCategory(), SubCategory::getName),
+                name(transaction.getAccountFrom(), Account::getName),
+                name(transaction.getAccountTo(), Account::getName));
+    }
+
+    private static <T> String name(T related, Function<T, String> name) {
+        return Objects.isNull(related) ? null : name.apply(related);
+    }
+
+    private void seed(Long userId) {
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        jdbcTemplate.update(
+                "INSERT INTO category (id, archived, income, color, hash, name)"
+                        + " SELECT x, FALSE, FALSE, '33', CAST(RANDOM_UUID() AS VARCHAR),"
+                        + " 'category ' || x FROM SYSTEM_RANGE(?, ?) AS r (x)",
+                FIRST_ID,
+                FIRST_ID + CATEGORIES - 1);
+        jdbcTemplate.update(
+                "INSERT INTO account (id, archived, account_type, balance, color, currency,"
+                        + " hash, name) SELECT x, FALSE, 'REGULAR', 0, '33', 'PLN',"
+                        + " CAST(RANDOM_UUID() AS VARCHAR), 'account ' || x"
+                        + " FROM SYSTEM_RANGE(?, ?) AS r (x)",
+                FIRST_ID,
+                FIRST_ID + CATEGORIES - 1);
+        // one transaction every ten minutes going back from 2024
+        jdbcTemplate.update(
+                "INSERT INTO transaction (id, name, note, amount, date, need, hash,"
+                        + " account_from_id, transaction_type, category_id, currency, future,"
+                        + " owner_id) SELECT x, 'transaction ' || x, '', MOD(x, 100) + 1,"
+                        + " DATEADD(MINUTE, -10 * (x - ?), TIMESTAMP '2024-01-01 00:00:00'),"
+                        + " FALSE, CAST(RANDOM_UUID() AS VARCHAR), ? + MOD(x, ?), 'EXPENSE',"
+                        + " ? + MOD(x, ?), 'PLN', FALSE, ? FROM SYSTEM_RANGE(?, ?) AS r (x)",
+                FIRST_ID,
+                FIRST_ID,
+                CATEGORIES,
+                FIRST_ID,
+                CATEGORIES,
+                userId,
+                FIRST_ID,
+                FIRST_ID + transactions - 1);
+        jdbcTemplate.execute("ANALYZE");
+        // H2 would otherwise return the cached result of a repeated query on unchanged tables
+        jdbcTemplate.execute("SET OPTIMIZE_REUSE_RESULTS 0");
+    }
+}
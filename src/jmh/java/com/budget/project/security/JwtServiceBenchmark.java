@@ -0,0 +1,69 @@
+package com.budget.project.security;
+
+import com.budget.project.model.db.Role;
+import com.budget.project.model.db.User;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request cost of verifying a JWT. {@code legacyValidate} repeats what the filter did before
+ * the key and parser were cached: three parses, each with a freshly decoded key and a new parser.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtServiceBenchmark {
+    private static final String SIGNING_KEY =
+            "4aecd426ba172ab96f93649c37f17572abfb4d1ed7120252f5228d66c1a1d951";
+
+    private JwtService jwtService;
+    private String jwt;
+
+    @Setup
+    public void setUp() {
+        jwtService = new JwtService();
+        ReflectionTestUtils.setField(jwtService, "SIGNING_KEY", SIGNING_KEY);
+        ReflectionTestUtils.setField(jwtService, "EXPIRATION_TIME", 6000000L);
+        jwtService.init();
+        jwt = jwtService.generateToken(User.builder()
+                .id(1L)
+                .email("jd")
+                .hash("user-hash")
+                .role(Role.USER)
+                .build());
+    }
+
+    @Benchmark
+    public void validate(Blackhole blackhole) {
+        Claims claims = jwtService.extractAllClaims(jwt);
+        blackhole.consume(claims.getSubject());
+        blackhole.consume(jwtService.extractPrincipal(claims));
+    }
+
+    @Benchmark
+    public void legacyValidate(Blackhole blackhole) {
+        blackhole.consume(legacyClaims().getSubject());
+        blackhole.consume(legacyClaims().getExpiration());
+        blackhole.consume(legacyClaims().getExpiration());
+    }
+
+    private Claims legacyClaims() {
+        return Jwts.parserBuilder()
+                .setSigningKey(Keys.hmacShaKeyFor(Decoders.BASE64.decode(SIGNING_KEY)))
+                .build()
+                .parseClaimsJws(jwt)
+                .getBody();
+    }
+}
@@ -0,0 +1,208 @@
+package com.budget.project.service;
+
+import com.budget.project.BenchmarkContext;
+import com.budget.project.auth.model.dto.AuthInput;
+import com.budget.project.auth.service.AuthService;
+import com.budget.project.model.db.Budget;
+import com.budget.project.model.db.Category;
+import com.budget.project.model.db.User;
+import com.budget.project.model.dto.BudgetDto;
+import com.budget.project.service.repository.BudgetRepository;
+import com.budget.project.service.repository.CategoryRepository;
+import com.budget.project.utils.DateRange;
+
+import jakarta.persistence.EntityManager;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Budgets of one month for a user with many categories, every category has two sub categories,
+ * a budget in each of the months and a daily total every other day. The {@code legacy} benchmark
+ * merges the categories, sums and budgets with the linear searches the service used before and
+ * loads the sub categories of every category on its own, like the GraphQL response did.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BudgetServiceBenchmark {
+    private static final String EMAIL = "budgets@benchmark";
+    private static final YearMonth MONTH = YearMonth.of(2023, 6);
+    private static final long FIRST_ID = 1_000_000;
+
+    @Param({"500"})
+    private int categories;
+
+    @Param({"24"})
+    private int months;
+
+    private ConfigurableApplicationContext context;
+    private TransactionTemplate transactionTemplate;
+    private EntityManager entityManager;
+    private BudgetService budgetService;
+    private UserService userService;
+    private CategoryRepository categoryRepository;
+    private BudgetRepository budgetRepository;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContext.start("budgets");
+        transactionTemplate =
+                new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        entityManager = context.getBean(EntityManager.class);
+        budgetService = context.getBean(BudgetService.class);
+        userService = context.getBean(UserService.class);
+        categoryRepository = context.getBean(CategoryRepository.class);
+        budgetRepository = context.getBean(BudgetRepository.class);
+
+        // the benchmark thread is not the one running the setup
+        SecurityContextHolder.setStrategyName(SecurityContextHolder.MODE_GLOBAL);
+        AuthService authService = context.getBean(AuthService.class);
+        authService.register(new AuthInput(EMAIL, "123"));
+        authService.authenticate(new AuthInput(EMAIL, "123"));
+        seed(transactionTemplate.execute(status -> userService.getLoggedUser().getId()));
+    }
+
+    @TearDown
+    public void tearDown() {
+        SecurityContextHolder.clearContext();
+        context.close();
+    }
+
+    // a request of its own, the logged user is looked up once per request like in the application
+    @Setup(Level.Invocation)
+    public void startRequest() {
+        RequestContextHolder.setRequestAttributes(
+                new ServletRequestAttributes(new MockHttpServletRequest()));
+    }
+
+    @TearDown(Level.Invocation)
+    public void endRequest() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Benchmark
+    public Object budgets() {
+        return transactionTemplate.execute(status -> {
+            List<BudgetDto> budgetDtoList = budgetService.getBudgetDtoList(MONTH);
+            budgetDtoList.forEach(b -> b.budget().getCategory().getSubCategories().size());
+            return budgetDtoList;
+        });
+    }
+
+    @Benchmark
+    public Object legacyBudgets() {
+        return transactionTemplate.execute(status -> legacyGetBudgetDtoList(MONTH));
+    }
+
+    private List<BudgetDto> legacyGetBudgetDtoList(YearMonth yearMonth) {
+        User user = userService.getLoggedUser();
+        DateRange month = DateRange.month(yearMonth, user.getSettings().getFirstDayOfTheMonth());
+        List<Object[]> rows = entityManager
+                .createQuery(
+                        "SELECT d.key.categoryId, sum(d.amount) FROM DailyTotal d"
+                                + " WHERE d.key.userId = :userId"
+                                + " AND d.key.date BETWEEN :startDate AND :endDate"
+                                + " GROUP BY d.key.categoryId ORDER BY sum(d.amount) DESC",
+                        Object[].class)
+                .setParameter("userId", user.getId())
+                .setParameter("startDate", month.start())
+                .setParameter("endDate", month.end())
+                .getResultList();
+        List<Category> userCategories = categoryRepository.findAllByUsersContaining(user);
+        List<CategorySum> sums = new ArrayList<>();
+        for (Object[] row : rows) {
+            sums.add(new CategorySum(
+                    entityManager.find(Category.class, row[0]), (Double) row[1]));
+        }
+        for (Category category : userCategories) {
+            if (!category.getIncome()
+                    && !category.getArchived()
+                    && sums.stream().noneMatch(s -> s.category().equals(category))) {
+                sums.add(new CategorySum(category, 0.0));
+            }
+        }
+        List<Budget> budgets = budgetRepository.findAllByDateAndUser(yearMonth, user);
+        List<BudgetDto> budgetDtoList = new ArrayList<>();
+        for (CategorySum sum : sums) {
+            Budget budget = budgets.stream()
+                    .filter(b -> b.getCategory().equals(sum.category()))
+                    .findFirst()
+                    .orElse(Budget.builder().plannedBudget(0.0).category(sum.category()).build());
+            budget.getCategory().getSubCategories().size();
+            budgetDtoList.add(new BudgetDto(budget, 0.0, 0.0));
+        }
+        return budgetDtoList;
+    }
+
+    private void seed(Long userId) {
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        long lastId = FIRST_ID + categories - 1;
+        jdbcTemplate.update(
+                "INSERT INTO category (id, archived, income, color, hash, name)"
+                        + " SELECT x, FALSE, MOD(x, 10) = 0, '33', CAST(RANDOM_UUID() AS VARCHAR),"
+                        + " 'category ' || x FROM SYSTEM_RANGE(?, ?) AS r (x)",
+                FIRST_ID,
+                lastId);
+        jdbcTemplate.update(
+                "INSERT INTO user_category (category_id, user_id)"
+                        + " SELECT x, ? FROM SYSTEM_RANGE(?, ?) AS r (x)",
+                userId,
+                FIRST_ID,
+                lastId);
+        jdbcTemplate.update(
+                "INSERT INTO sub_category (id, parent_id, color, hash, name)"
+                        + " SELECT x, ? + MOD(x, ?), '33', CAST(RANDOM_UUID() AS VARCHAR),"
+                        + " 'sub ' || x FROM SYSTEM_RANGE(?, ?) AS r (x)",
+                FIRST_ID,
+                categories,
+                FIRST_ID,
+                FIRST_ID + 2L * categories - 1);
+        // the first day of the month of the user is the 10th by default
+        jdbcTemplate.update(
+                "INSERT INTO budget (id, date, planned_budget, category_id, user_id, hash)"
+                        + " SELECT x, DATEADD(MONTH, -((x - ?) / ?), DATE '2024-01-10'), 100,"
+                        + " ? + MOD(x, ?), ?, CAST(RANDOM_UUID() AS VARCHAR)"
+                        + " FROM SYSTEM_RANGE(?, ?) AS r (x)",
+                FIRST_ID,
+                categories,
+                FIRST_ID,
+                categories,
+                userId,
+                FIRST_ID,
+                FIRST_ID + (long) categories * months - 1);
+        jdbcTemplate.update(
+                "INSERT INTO daily_total (user_id, date, category_id, sub_category_id,"
+                        + " transaction_type, amount) SELECT ?,"
+                        + " DATEADD(DAY, -2 * ((x - ?) / ?), DATE '2024-01-31'), ? + MOD(x, ?), 0,"
+                        + " CASE WHEN MOD(x, 10) = 0 THEN 'INCOME' ELSE 'EXPENSE' END, 10"
+                        + " FROM SYSTEM_RANGE(?, ?) AS r (x)",
+                userId,
+                FIRST_ID,
+                categories,
+                FIRST_ID,
+                categories,
+                FIRST_ID,
+                FIRST_ID + (long) categories * months * 15 - 1);
+        jdbcTemplate.execute("ANALYZE");
+        // H2 would otherwise return the cached result of a repeated query on unchanged tables
+        jdbcTemplate.execute("SET OPTIMIZE_REUSE_RESULTS 0");
+    }
+
+    private record CategorySum(Category category, Double sum) {}
+}
@@ -0,0 +1,103 @@
+package com.budget.project.service;
+
+import com.budget.project.model.dto.ImportRecord;
+
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVPrinter;
+import org.apache.commons.csv.CSVRecord;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reading a OneMoney export into import records. {@code legacyTransformFile} repeats what the
+ * import did before records were streamed: the whole file was rewritten into the native CSV in a
+ * {@link StringWriter} with two {@link SimpleDateFormat}s per row and then parsed again.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OneMoneyServiceBenchmark {
+    private static final String HEADER = "\"DATE\",\"TYPE\",\"FROM ACCOUNT\","
+            + "\"TO ACCOUNT / TO CATEGORY\",\"AMOUNT\",\"CURRENCY\",\"AMOUNT 2\","
+            + "\"CURRENCY 2\",\"TAGS\",\"NOTES\"\n";
+
+    @Param({"10000", "100000"})
+    private int rows;
+
+    private final OneMoneyService oneMoneyService = new OneMoneyService();
+    private final CsvImportFormat csvImportFormat = new CsvImportFormat();
+    private byte[] file;
+
+    @Setup
+    public void setUp() {
+        StringBuilder csv = new StringBuilder(HEADER);
+        for (int i = 0; i < rows; i++) {
+            String type = i % 10 == 0 ? "Income" : "Expense";
+            csv.append(String.format(
+                    "\"12/%02d/23\",\"%s\",\"Santander\",\"Transport (MZK/SKM)\",\"%d.72\",\"PLN\","
+                            + "\"%d.72\",\"PLN\",\"\",\"note %d\"\n",
+                    i % 28 + 1, type, i % 100, i % 100, i));
+        }
+        file = csv.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public void stream(Blackhole blackhole) throws IOException {
+        try (RecordBlockReader reader = new RecordBlockReader(
+                new ByteArrayInputStream(file), oneMoneyService, ImportProgress.NONE)) {
+            reader.forEachRemaining(blackhole::consume);
+        }
+    }
+
+    @Benchmark
+    public void legacyTransformFile(Blackhole blackhole) throws IOException {
+        StringWriter sw = new StringWriter();
+        Iterable<CSVRecord> records = oneMoneyService
+                .getCsvFormat()
+                .parse(new InputStreamReader(new ByteArrayInputStream(file)));
+        try (CSVPrinter printer = new CSVPrinter(sw, CSVFormat.DEFAULT)) {
+            for (CSVRecord record : records) {
+                ImportRecord importRecord = oneMoneyService.toImportRecord(record);
+                printer.printRecord(List.of(
+                        legacyDate(record.get("DATE")),
+                        importRecord.type().name(),
+                        importRecord.from(),
+                        importRecord.to(),
+                        record.get("AMOUNT"),
+                        importRecord.note(),
+                        "true"));
+            }
+        }
+        byte[] transformed = sw.toString().getBytes();
+        for (CSVRecord record : csvImportFormat
+                .getCsvFormat()
+                .withSkipHeaderRecord(false)
+                .parse(new StringReader(new String(transformed)))) {
+            blackhole.consume(csvImportFormat.toImportRecord(record));
+        }
+    }
+
+    private String legacyDate(String date) {
+        SimpleDateFormat fromOneMoney = new SimpleDateFormat("MM/dd/yy");
+        SimpleDateFormat myFormat = new SimpleDateFormat("dd/MM/yyyy");
+        try {
+            return myFormat.format(fromOneMoney.parse(date));
+        } catch (ParseException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package com.budget.project.service.repository;
+
+import static com.budget.project.utils.TestUtils.getAccountInput;
+import static com.budget.project.utils.TestUtils.getCategoryInput;
+
+import com.budget.project.BenchmarkContext;
+import com.budget.project.model.db.Account;
+import com.budget.project.model.db.Category;
+import com.budget.project.model.db.Role;
+import com.budget.project.model.db.Transaction;
+import com.budget.project.model.db.TransactionType;
+import com.budget.project.model.db.User;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * User scoped reads over transactions spread evenly over ten users. The {@code legacy} benchmarks
+ * run the queries as they were before the owner column, checking the users of the accounts or of
+ * the category with {@code MEMBER OF}. {@code dailyTotal} reads the same expense from the daily
+ * totals the statistics use now.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TransactionRepositoryBenchmark {
+    private static final int USERS = 10;
+    private static final LocalDateTime END = LocalDateTime.of(2024, 1, 1, 0, 0);
+    private static final LocalDateTime START = END.minusMonths(1);
+    private static final String LEGACY_USER_SCOPE = " FROM Transaction t "
+            + "LEFT JOIN t.accountFrom af LEFT JOIN t.accountTo at "
+            + "WHERE :user MEMBER OF af.users OR :user MEMBER OF at.users";
+    private static final String EXPENSE = "SELECT sum(t.amount) FROM Transaction t"
+            + " where t.owner = :user and "
+            + "(t.date between :startDate and :endDate) and (t.transactionType = 'EXPENSE')";
+    private static final String LEGACY_EXPENSE = "SELECT sum(t.amount) FROM Transaction t"
+            + " where (:user MEMBER OF t.category.users) and "
+            + "(t.date between :startDate and :endDate) and (t.transactionType = 'EXPENSE')";
+    // one transaction a minute going back from END
+    private static final String INSERT = "INSERT INTO transaction (id, name, note, amount, date,"
+            + " need, hash, account_from_id, transaction_type, category_id, currency, future,"
+            + " owner_id) SELECT x, '', '', MOD(x, 100) + 1,"
+            + " DATEADD(MINUTE, -x / " + USERS + ", TIMESTAMP '2024-01-01 00:00:00'), FALSE,"
+            + " CAST(RANDOM_UUID() AS VARCHAR), ?, 'EXPENSE', ?, 'PLN', FALSE, ?"
+            + " FROM SYSTEM_RANGE(?, ?) AS r (x) WHERE MOD(x, " + USERS + ") = ?";
+    // the backfill of the daily totals migration
+    private static final String INSERT_DAILY_TOTALS = "INSERT INTO daily_total (user_id, date,"
+            + " category_id, sub_category_id, transaction_type, amount) SELECT owner_id,"
+            + " CAST(date AS DATE), category_id, 0, transaction_type, SUM(amount)"
+            + " FROM transaction GROUP BY owner_id, CAST(date AS DATE), category_id,"
+            + " transaction_type";
+
+    @Param({"1000000"})
+    private int transactions;
+
+    private ConfigurableApplicationContext context;
+    private TransactionRepository transactionRepository;
+    private DailyTotalRepository dailyTotalRepository;
+    private EntityManager entityManager;
+    private User user;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContext.start("ownership");
+        transactionRepository = context.getBean(TransactionRepository.class);
+        dailyTotalRepository = context.getBean(DailyTotalRepository.class);
+        entityManager = context.getBean(EntityManagerFactory.class).createEntityManager();
+        TransactionTemplate transactionTemplate =
+                new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+
+        List<User> users = transactionTemplate.execute(status -> createUsers());
+        for (int i = 0; i < USERS; i++) {
+            User owner = users.get(i);
+            jdbcTemplate.update(
+                    INSERT,
+                    owner.getAccounts().iterator().next().getId(),
+                    owner.getCategories().iterator().next().getId(),
+                    owner.getId(),
+                    1,
+                    transactions,
+                    i);
+        }
+        jdbcTemplate.update(INSERT_DAILY_TOTALS);
+        jdbcTemplate.execute("ANALYZE");
+        // H2 would otherwise return the cached result of a repeated query on unchanged tables
+        jdbcTemplate.execute("SET OPTIMIZE_REUSE_RESULTS 0");
+        user = users.get(USERS / 2);
+    }
+
+    @TearDown
+    public void tearDown() {
+        entityManager.close();
+        context.close();
+    }
+
+    @Benchmark
+    public Object page() {
+        return transactionRepository.findTransactionsForUser(
+                user, PageRequest.of(0, 20, Sort.by("date").descending()));
+    }
+
+    @Benchmark
+    public Object legacyPage() {
+        List<Transaction> content = entityManager
+                .createQuery("SELECT t" + LEGACY_USER_SCOPE + " ORDER BY t.date DESC",
+                        Transaction.class)
+                .setParameter("user", user)
+                .setMaxResults(20)
+                .getResultList();
+        Long total = entityManager
+                .createQuery("SELECT count(t)" + LEGACY_USER_SCOPE, Long.class)
+                .setParameter("user", user)
+                .getSingleResult();
+        entityManager.clear();
+        return List.of(content, total);
+    }
+
+    @Benchmark
+    public Object expense() {
+        return entityManager
+                .createQuery(EXPENSE, Double.class)
+                .setParameter("user", user)
+                .setParameter("startDate", START)
+                .setParameter("endDate", END)
+                .getSingleResult();
+    }
+
+    @Benchmark
+    public Object dailyTotal() {
+        return dailyTotalRepository.sumAmount(
+                user.getId(), TransactionType.EXPENSE, START.toLocalDate(), END.toLocalDate());
+    }
+
+    @Benchmark
+    public Object legacyExpense() {
+        return entityManager
+                .createQuery(LEGACY_EXPENSE, Double.class)
+                .setParameter("user", user)
+                .setParameter("startDate", START)
+                .setParameter("endDate", END)
+                .getSingleResult();
+    }
+
+    private List<User> createUsers() {
+        EntityManager em = context.getBean(EntityManager.class);
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            User owner = User.builder()
+                    .email("user" + i + "@benchmark")
+                    .password("")
+                    .hash(UUID.randomUUID().toString())
+                    .role(Role.USER)
+                    .accounts(new HashSet<>())
+                    .categories(new HashSet<>())
+                    .build();
+            em.persist(owner);
+            Account account = Account.of(getAccountInput("account " + i), owner);
+            em.persist(account);
+            owner.getAccounts().add(account);
+            Category category = Category.of(getCategoryInput(false), owner);
+            em.persist(category);
+            owner.getCategories().add(category);
+            users.add(owner);
+        }
+        return users;
+    }
+}
@@ -0,0 +1,37 @@
+package com.budget.project.utils;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.TimeUnit;
+
+/** Date parsing as done by the GraphQL arguments and by the CSV import. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DateUtilsBenchmark {
+    private static final DateTimeFormatter IMPORT_FORMATTER =
+            DateTimeFormatter.ofPattern("dd/MM/yyyy");
+
+    private final String isoDate = "2024-02-21T10:15:30.123+01:00";
+    private final String importDate = "21/02/2024";
+
+    @Benchmark
+    public LocalDateTime parseIso() {
+        return DateUtils.parse(isoDate);
+    }
+
+    @Benchmark
+    public LocalDateTime parsePattern() {
+        return DateUtils.parse(importDate, "dd/MM/yyyy");
+    }
+
+    @Benchmark
+    public LocalDateTime parseFormatter() {
+        return DateUtils.parse(importDate, IMPORT_FORMATTER);
+    }
+}
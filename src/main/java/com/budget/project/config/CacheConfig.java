@@ -0,0 +1,58 @@
+package com.budget.project.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.net.URI;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.UUID;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+
+/**
+ * The second-level cache of the reference data transactions point to: categories, sub categories
+ * and accounts by id, their ids by hash and the categories and accounts of a user. Every region
+ * is created here with its size, Hibernate fails on a region that isn't. Each application
+ * context gets a cache manager of its own, Hibernate closes it together with the session factory.
+ */
+@Configuration
+public class CacheConfig {
+    // the regions of the @Cache and @NaturalIdCache annotations of the entities
+    private static final List<String> REGIONS = List.of(
+            "category",
+            "category-hash",
+            "sub-category",
+            "sub-category-hash",
+            "account",
+            "account-hash",
+            "user-categories",
+            "user-accounts");
+
+    @Bean
+    public CacheManager hibernateCacheManager(
+            @Value("${reference-data.cache-size:10000}") long size) {
+        CacheManager cacheManager = Caching.getCachingProvider(
+                        CaffeineCachingProvider.class.getName())
+                .getCacheManager(
+                        URI.create("budget-" + UUID.randomUUID()),
+                        CacheConfig.class.getClassLoader());
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        configuration.setMaximumSize(OptionalLong.of(size));
+        REGIONS.forEach(region -> cacheManager.createCache(region, configuration));
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer cacheManagerCustomizer(
+            CacheManager hibernateCacheManager) {
+        return properties -> properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+    }
+}
@@ -0,0 +1,84 @@
+package com.budget.project.config;
+
+import com.budget.project.utils.CacheUtils;
+
+import graphql.ExecutionInput;
+import graphql.execution.preparsed.PreparsedDocumentEntry;
+import graphql.execution.preparsed.PreparsedDocumentProvider;
+import graphql.execution.preparsed.persisted.ApolloPersistedQuerySupport;
+import graphql.execution.preparsed.persisted.PersistedQueryNotFound;
+import graphql.execution.preparsed.persisted.PersistedQuerySupport;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Keeps parsed and validated documents, so an operation the client sends again skips both.
+ * Queries sent as text are keyed by the text. Automatic persisted queries are keyed by their
+ * SHA-256 hash: the client sends only the hash and, when it is not known yet, sends it again
+ * with the text, which has to match the hash before it is kept. Both caches drop the least
+ * recently used document once they are full, documents with errors are never kept.
+ */
+public class DocumentCache implements PreparsedDocumentProvider {
+    private final Map<String, PreparsedDocumentEntry> documents;
+    private final Map<Object, PreparsedDocumentEntry> persistedDocuments;
+    private final PersistedQuerySupport persistedQuerySupport;
+    private final MeterRegistry meterRegistry;
+
+    public DocumentCache(int size, MeterRegistry meterRegistry) {
+        this.documents = CacheUtils.lru(size);
+        this.persistedDocuments = CacheUtils.lru(size);
+        this.meterRegistry = meterRegistry;
+        // a request with only the hash carries the marker as its query, see
+        // PersistedQueryHttpHandler, the client has to send the text along then
+        this.persistedQuerySupport = new ApolloPersistedQuerySupport((id, input, onCacheMiss) ->
+                get(persistedDocuments, id, "persisted", () -> {
+                    if (PersistedQuerySupport.PERSISTED_QUERY_MARKER.equals(input.getQuery())) {
+                        throw new PersistedQueryNotFound(id);
+                    }
+                    return onCacheMiss.apply(input.getQuery());
+                }));
+    }
+
+    @Override
+    public PreparsedDocumentEntry getDocument(
+            ExecutionInput executionInput,
+            Function<ExecutionInput, PreparsedDocumentEntry> parseAndValidateFunction) {
+        if (executionInput.getExtensions().containsKey("persistedQuery")) {
+            return persistedQuerySupport.getDocument(executionInput, parseAndValidateFunction);
+        }
+        return get(
+                documents,
+                executionInput.getQuery(),
+                "text",
+                () -> parseAndValidateFunction.apply(executionInput));
+    }
+
+    // parsing runs outside the lock, two requests may parse the same new document at once
+    private <K> PreparsedDocumentEntry get(
+            Map<K, PreparsedDocumentEntry> cache,
+            K key,
+            String type,
+            Supplier<PreparsedDocumentEntry> parseAndValidate) {
+        PreparsedDocumentEntry entry = cache.get(key);
+        meterRegistry
+                .counter(
+                        "graphql.documents",
+                        "type",
+                        type,
+                        "result",
+                        Objects.isNull(entry) ? "miss" : "hit")
+                .increment();
+        if (Objects.isNull(entry)) {
+            entry = parseAndValidate.get();
+            if (!entry.hasErrors()) {
+                cache.put(key, entry);
+            }
+        }
+        return entry;
+    }
+}
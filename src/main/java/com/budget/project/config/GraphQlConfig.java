@@ -0,0 +1,35 @@
+package com.budget.project.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.graphql.GraphQlSourceBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.graphql.server.WebGraphQlHandler;
+import org.springframework.graphql.server.webmvc.GraphQlHttpHandler;
+
+@Configuration
+public class GraphQlConfig {
+
+    @Bean
+    public DocumentCache documentCache(
+            @Value("${graphql.documents.cache-size:500}") int size, MeterRegistry meterRegistry) {
+        return new DocumentCache(size, meterRegistry);
+    }
+
+    @Bean
+    public GraphQlSourceBuilderCustomizer documentCacheCustomizer(DocumentCache documentCache) {
+        return builder -> builder.configureGraphQl(
+                graphQl -> graphQl.preparsedDocumentProvider(documentCache));
+    }
+
+    // replaces the handler of the auto-configuration, so requests may carry only a query hash
+    @Bean
+    public GraphQlHttpHandler graphQlHttpHandler(
+            WebGraphQlHandler webGraphQlHandler, ObjectMapper objectMapper) {
+        return new PersistedQueryHttpHandler(webGraphQlHandler, objectMapper);
+    }
+}
@@ -0,0 +1,39 @@
+package com.budget.project.config;
+
+import com.budget.project.metrics.JdbcStatementMetrics;
+import com.budget.project.service.UserService;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class MetricsConfig {
+
+    // enables @Timed on service methods
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry);
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer statementMetricsCustomizer(
+            JdbcStatementMetrics jdbcStatementMetrics) {
+        return properties ->
+                properties.put(AvailableSettings.STATEMENT_INSPECTOR, jdbcStatementMetrics);
+    }
+
+    @Bean
+    public MeterBinder userLookupMetrics(UserService userService) {
+        return meterRegistry -> FunctionCounter.builder(
+                        "user.lookups.avoided", userService, UserService::getAvoidedLookups)
+                .description("Logged user lookups served from the request cache")
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,59 @@
+package com.budget.project.config;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import graphql.execution.preparsed.persisted.PersistedQuerySupport;
+
+import jakarta.servlet.ServletException;
+
+import org.springframework.graphql.server.WebGraphQlHandler;
+import org.springframework.graphql.server.webmvc.GraphQlHttpHandler;
+import org.springframework.web.server.ServerWebInputException;
+import org.springframework.web.servlet.function.ServerRequest;
+import org.springframework.web.servlet.function.ServerResponse;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Lets a request carry only the hash of an automatic persisted query. The handler it extends
+ * rejects a request without a query, so the query is set to the marker graphql-java reads as
+ * "look the document up by its hash".
+ */
+public class PersistedQueryHttpHandler extends GraphQlHttpHandler {
+    private final ObjectMapper objectMapper;
+
+    public PersistedQueryHttpHandler(WebGraphQlHandler graphQlHandler, ObjectMapper objectMapper) {
+        super(graphQlHandler);
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public ServerResponse handleRequest(ServerRequest request) throws ServletException {
+        String body;
+        Map<String, Object> json;
+        try {
+            body = request.body(String.class);
+            json = objectMapper.readValue(body, new TypeReference<>() {});
+        } catch (IOException ex) {
+            throw new ServerWebInputException("I/O error while reading request body", null, ex);
+        }
+        if (!json.containsKey("query")
+                && json.get("extensions") instanceof Map<?, ?> extensions
+                && extensions.containsKey("persistedQuery")) {
+            json.put("query", PersistedQuerySupport.PERSISTED_QUERY_MARKER);
+            body = write(json);
+        }
+        return super.handleRequest(ServerRequest.from(request).body(body).build());
+    }
+
+    private String write(Map<String, Object> json) {
+        try {
+            return objectMapper.writeValueAsString(json);
+        } catch (JsonProcessingException ex) {
+            throw new ServerWebInputException("can't write the request body", null, ex);
+        }
+    }
+}
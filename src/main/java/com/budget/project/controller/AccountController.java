@@ -11,11 +11,14 @@ import lombok.RequiredArgsConstructor;
 
 import org.springframework.data.domain.Page;
 import org.springframework.graphql.data.method.annotation.Argument;
+import org.springframework.graphql.data.method.annotation.BatchMapping;
 import org.springframework.graphql.data.method.annotation.MutationMapping;
 import org.springframework.graphql.data.method.annotation.QueryMapping;
 import org.springframework.stereotype.Controller;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @Controller
 @RequiredArgsConstructor
@@ -53,4 +56,14 @@ public class AccountController {
     public Account updateAccount(@Argument String hash, @Argument AccountInput accountInput) {
         return accountService.updateAccount(hash, accountInput);
     }
+
+    @BatchMapping
+    public Map<Account, Account> parent(List<Account> accounts) {
+        return accountService.getRelatedAccounts(accounts, Account::getParent);
+    }
+
+    @BatchMapping
+    public Map<Account, Set<Account>> subAccounts(List<Account> accounts) {
+        return accountService.getSubAccounts(accounts);
+    }
 }
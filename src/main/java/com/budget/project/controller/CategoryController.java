@@ -2,6 +2,7 @@ package com.budget.project.controller;
 
 import com.budget.project.filter.model.Filter;
 import com.budget.project.model.db.Category;
+import com.budget.project.model.db.SubCategory;
 import com.budget.project.model.dto.CustomPage;
 import com.budget.project.model.dto.request.input.CategoryInput;
 import com.budget.project.model.dto.request.input.CategoryUpdateInput;
@@ -11,11 +12,14 @@ import lombok.RequiredArgsConstructor;
 
 import org.springframework.data.domain.Page;
 import org.springframework.graphql.data.method.annotation.Argument;
+import org.springframework.graphql.data.method.annotation.BatchMapping;
 import org.springframework.graphql.data.method.annotation.MutationMapping;
 import org.springframework.graphql.data.method.annotation.QueryMapping;
 import org.springframework.stereotype.Controller;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @Controller
 @RequiredArgsConstructor
@@ -54,4 +58,9 @@ public class CategoryController {
             @Argument String hash, @Argument CategoryUpdateInput categoryUpdateInput) {
         return categoryService.updateCategory(hash, categoryUpdateInput);
     }
+
+    @BatchMapping
+    public Map<Category, Set<SubCategory>> subCategories(List<Category> categories) {
+        return categoryService.getSubCategories(categories);
+    }
 }
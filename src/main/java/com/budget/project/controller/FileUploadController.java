@@ -1,30 +1,40 @@
 package com.budget.project.controller;
 
-import com.budget.project.service.ImportService;
+import com.budget.project.model.db.ImportJob;
+import com.budget.project.service.CsvImportFormat;
+import com.budget.project.service.ImportJobService;
+import com.budget.project.service.OneMoneyService;
 
 import lombok.RequiredArgsConstructor;
 
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.multipart.MultipartFile;
 
+// uploads are imported in the background, the response carries the hash of the import job
 @Controller
 @RequiredArgsConstructor
 public class FileUploadController {
-    private final ImportService importService;
+    private final ImportJobService importJobService;
 
     @PostMapping("/import")
     public ResponseEntity<String> uploadFile(@RequestParam("file") MultipartFile file) {
-        importService.importCSV(file);
-        return ResponseEntity.status(HttpStatus.OK).body("success");
+        return importFile(CsvImportFormat.NAME, file);
     }
 
     @PostMapping("/onemoney")
     public ResponseEntity<String> importFromOneMoney(@RequestParam("file") MultipartFile file) {
-        importService.importFromOneMoney(file);
-        return ResponseEntity.status(HttpStatus.OK).body("success");
+        return importFile(OneMoneyService.NAME, file);
+    }
+
+    @PostMapping("/import/{format}")
+    public ResponseEntity<String> importFile(
+            @PathVariable String format, @RequestParam("file") MultipartFile file) {
+        ImportJob job = importJobService.submit(file, format);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(job.getHash());
     }
 }
@@ -0,0 +1,28 @@
+package com.budget.project.controller;
+
+import com.budget.project.model.db.ImportJob;
+import com.budget.project.service.ImportJobService;
+
+import lombok.RequiredArgsConstructor;
+
+import org.springframework.graphql.data.method.annotation.Argument;
+import org.springframework.graphql.data.method.annotation.QueryMapping;
+import org.springframework.stereotype.Controller;
+
+import java.util.List;
+
+@Controller
+@RequiredArgsConstructor
+public class ImportJobController {
+    private final ImportJobService importJobService;
+
+    @QueryMapping
+    public ImportJob getImportJob(@Argument String hash) {
+        return importJobService.getImportJob(hash);
+    }
+
+    @QueryMapping
+    public List<ImportJob> getImportJobs() {
+        return importJobService.getImportJobs();
+    }
+}
@@ -2,6 +2,7 @@ package com.budget.project.controller;
 
 import com.budget.project.model.dto.AccountDto;
 import com.budget.project.model.dto.CategoryAmount;
+import com.budget.project.model.dto.Dashboard;
 import com.budget.project.model.dto.IncomeExpense;
 import com.budget.project.service.StatisticsService;
 
@@ -44,4 +45,9 @@ public class StatisticsController {
     public List<Double> getExpensesPerMonth(@Argument String date) {
         return statisticsService.getExpensesPerMonth(date);
     }
+
+    @QueryMapping
+    public Dashboard dashboard(@Argument String date) {
+        return statisticsService.getDashboard(date);
+    }
 }
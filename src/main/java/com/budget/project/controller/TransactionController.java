@@ -1,26 +1,41 @@
 package com.budget.project.controller;
 
 import com.budget.project.filter.model.Filter;
+import com.budget.project.model.db.Account;
+import com.budget.project.model.db.Category;
+import com.budget.project.model.db.SubCategory;
 import com.budget.project.model.db.Transaction;
+import com.budget.project.model.dto.Connection;
 import com.budget.project.model.dto.CustomPage;
+import com.budget.project.model.dto.TransactionRow;
 import com.budget.project.model.dto.request.input.TransactionInput;
+import com.budget.project.service.AccountService;
+import com.budget.project.service.CategoryService;
 import com.budget.project.service.TransactionService;
 
+import graphql.schema.DataFetchingFieldSelectionSet;
+
 import lombok.RequiredArgsConstructor;
 
 import org.springframework.data.domain.Page;
 import org.springframework.graphql.data.method.annotation.Argument;
+import org.springframework.graphql.data.method.annotation.BatchMapping;
 import org.springframework.graphql.data.method.annotation.MutationMapping;
 import org.springframework.graphql.data.method.annotation.QueryMapping;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.RequestMapping;
 
+import java.util.List;
+import java.util.Map;
+
 @Controller
 @RequiredArgsConstructor
 @RequestMapping("/api/transaction")
 public class TransactionController {
 
     private final TransactionService transactionService;
+    private final AccountService accountService;
+    private final CategoryService categoryService;
 
     @QueryMapping
     public Page<Transaction> getTransactionsPage(
@@ -28,6 +43,28 @@ public class TransactionController {
         return transactionService.getTransactionsPage(page, filter);
     }
 
+    @QueryMapping
+    public List<TransactionRow> getTransactionRows(
+            @Argument CustomPage page, @Argument Filter filter) {
+        return transactionService.getTransactionRows(page, filter);
+    }
+
+    @QueryMapping
+    public List<TransactionRow> searchTransactions(
+            @Argument String query, @Argument CustomPage page) {
+        return transactionService.searchTransactions(query, page);
+    }
+
+    @QueryMapping
+    public Connection<Transaction> transactionsConnection(
+            @Argument int first,
+            @Argument String after,
+            @Argument Filter filter,
+            DataFetchingFieldSelectionSet selectionSet) {
+        return transactionService.getTransactionsConnection(
+                first, after, filter, selectionSet.contains("totalCount"));
+    }
+
     @QueryMapping
     public Transaction getTransaction(@Argument String hash) {
         return transactionService.getTransaction(hash);
@@ -49,4 +86,25 @@ public class TransactionController {
         transactionService.deleteTransaction(hash);
         return true;
     }
+
+    // the relations of every transaction in the response are loaded together
+    @BatchMapping
+    public Map<Transaction, Account> accountFrom(List<Transaction> transactions) {
+        return accountService.getRelatedAccounts(transactions, Transaction::getAccountFrom);
+    }
+
+    @BatchMapping
+    public Map<Transaction, Account> accountTo(List<Transaction> transactions) {
+        return accountService.getRelatedAccounts(transactions, Transaction::getAccountTo);
+    }
+
+    @BatchMapping
+    public Map<Transaction, Category> category(List<Transaction> transactions) {
+        return categoryService.getRelatedCategories(transactions, Transaction::getCategory);
+    }
+
+    @BatchMapping
+    public Map<Transaction, SubCategory> subCategory(List<Transaction> transactions) {
+        return categoryService.getRelatedSubCategories(transactions, Transaction::getSubCategory);
+    }
 }
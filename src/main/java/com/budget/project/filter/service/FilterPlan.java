@@ -0,0 +1,239 @@
+package com.budget.project.filter.service;
+
+import com.budget.project.exception.AppException;
+import com.budget.project.filter.model.LogicOperator;
+import com.budget.project.filter.model.NumberOperator;
+import com.budget.project.filter.model.StringOperator;
+import com.budget.project.utils.DateUtils;
+
+import jakarta.persistence.criteria.*;
+import jakarta.persistence.metamodel.Attribute;
+import jakarta.persistence.metamodel.ManagedType;
+import jakarta.persistence.metamodel.PluralAttribute;
+import jakarta.persistence.metamodel.SingularAttribute;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.http.HttpStatus;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * A {@link FilterShape} compiled for one entity. Field paths are split and checked against the
+ * entity model and operators are resolved once, binding the plan to a query only creates the
+ * predicates, taking the values by their position in {@link FilterShape#values()}. Every
+ * association path is joined once per query, however many comparisons read it, so comparisons
+ * on a collection refer to the same element of it. Paths are at most {@link #MAX_PATH_LENGTH}
+ * attributes long and only their first attribute may be a collection.
+ */
+@Slf4j
+final class FilterPlan {
+    private static final Set<FilterShape.Kind> OPERATOR_KINDS = EnumSet.of(
+            FilterShape.Kind.STRING, FilterShape.Kind.DATE, FilterShape.Kind.DOUBLE);
+    // e.g. subCategory.parent.name, longer paths only add joins the query cost doesn't count
+    private static final int MAX_PATH_LENGTH = 3;
+
+    private final Condition root;
+    // the association paths, a join only follows one that comes before it
+    private final List<JoinStep> joins;
+
+    private FilterPlan(Condition root, List<JoinStep> joins) {
+        this.root = root;
+        this.joins = joins;
+    }
+
+    static FilterPlan compile(FilterShape shape, ManagedType<?> entity) {
+        if (Objects.isNull(shape.logicOperator())) {
+            throw invalid("filter without a logic operator");
+        }
+        Compiler compiler = new Compiler(entity);
+        return new FilterPlan(compiler.compile(shape), compiler.joins);
+    }
+
+    Predicate toPredicate(CriteriaBuilder criteriaBuilder, Root<?> root, Object[] values) {
+        return this.root.toPredicate(new Binding(criteriaBuilder, root, values, joins));
+    }
+
+    private static class Compiler {
+        private final ManagedType<?> entity;
+        private final List<JoinStep> joins = new ArrayList<>();
+        private final Map<String, Integer> joinIndexes = new HashMap<>();
+        // follows the order FilterShape reads the values in
+        private int parameter;
+
+        private Compiler(ManagedType<?> entity) {
+            this.entity = entity;
+        }
+
+        private Condition compile(FilterShape shape) {
+            List<Condition> conditions = new ArrayList<>();
+            for (FilterShape.Term term : shape.terms()) {
+                conditions.add(comparison(term));
+            }
+            if (Objects.nonNull(shape.subFilters())) {
+                for (FilterShape subFilter : shape.subFilters()) {
+                    conditions.add(compile(subFilter));
+                }
+            }
+            return new Junction(shape.logicOperator(), conditions.toArray(new Condition[0]));
+        }
+
+        // checks every attribute of the path and registers the joins leading to the last one
+        private Comparison comparison(FilterShape.Term term) {
+            String field = term.field();
+            if (Objects.isNull(field)) {
+                throw invalid("filter expression without a field");
+            }
+            String[] path = field.split("\\.");
+            if (path.length > MAX_PATH_LENGTH) {
+                throw invalid("filter field is nested too deep: " + field);
+            }
+            ManagedType<?> type = entity;
+            int join = Binding.ROOT;
+            for (int i = 0; i < path.length; i++) {
+                Attribute<?, ?> attribute;
+                try {
+                    attribute = type.getAttribute(path[i]);
+                } catch (IllegalArgumentException ex) {
+                    throw invalid("unknown filter field: " + field);
+                }
+                // every collection joined multiplies the rows, only the entity's own may be
+                if (i > 0 && attribute.isCollection()) {
+                    throw invalid("filter field joins a nested collection: " + field);
+                }
+                if (i < path.length - 1) {
+                    type = joined(attribute, field);
+                    join = join(join, path, i);
+                }
+            }
+            return new Comparison(join, path[path.length - 1], operator(term), parameter++);
+        }
+
+        private int join(int parent, String[] path, int last) {
+            String joinPath = String.join(".", Arrays.copyOfRange(path, 0, last + 1));
+            return joinIndexes.computeIfAbsent(joinPath, p -> {
+                joins.add(new JoinStep(parent, path[last]));
+                return joins.size() - 1;
+            });
+        }
+    }
+
+    private static ManagedType<?> joined(Attribute<?, ?> attribute, String field) {
+        Object type = attribute instanceof PluralAttribute<?, ?, ?> plural
+                ? plural.getElementType()
+                : ((SingularAttribute<?, ?>) attribute).getType();
+        if (type instanceof ManagedType<?> managedType) {
+            return managedType;
+        }
+        throw invalid("filter field can't be joined: " + field);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Operator operator(FilterShape.Term term) {
+        if (Objects.isNull(term.operator()) && OPERATOR_KINDS.contains(term.kind())) {
+            throw invalid("filter expression without an operator: " + term.field());
+        }
+        return switch (term.kind()) {
+            case STRING -> switch ((StringOperator) term.operator()) {
+                case EQUALS -> CriteriaBuilder::equal;
+                case CONTAINS -> (criteriaBuilder, field, value) ->
+                        criteriaBuilder.like((Expression<String>) field, "%" + value + "%");
+            };
+            case DOUBLE -> switch ((NumberOperator) term.operator()) {
+                case EQ -> CriteriaBuilder::equal;
+                case LT -> (criteriaBuilder, field, value) ->
+                        criteriaBuilder.lessThan((Expression) field, (Double) value);
+                case GT -> (criteriaBuilder, field, value) ->
+                        criteriaBuilder.greaterThan((Expression) field, (Double) value);
+                case GTE -> (criteriaBuilder, field, value) ->
+                        criteriaBuilder.greaterThanOrEqualTo((Expression) field, (Double) value);
+                case LTE -> (criteriaBuilder, field, value) ->
+                        criteriaBuilder.lessThanOrEqualTo((Expression) field, (Double) value);
+            };
+            // BETWEEN is the only date operator
+            case DATE -> (criteriaBuilder, field, value) -> {
+                List<String> dates = (List<String>) value;
+                return criteriaBuilder.between(
+                        (Expression<LocalDateTime>) field,
+                        DateUtils.parse(dates.get(0)),
+                        DateUtils.parse(dates.get(1)));
+            };
+            case BOOLEAN, ACCOUNT_TYPE, TRANSACTION_TYPE -> CriteriaBuilder::equal;
+        };
+    }
+
+    private static AppException invalid(String message) {
+        log.warn("invalid filter: {}", message);
+        return new AppException("Something went wrong with filtering", HttpStatus.BAD_REQUEST);
+    }
+
+    private interface Condition {
+        Predicate toPredicate(Binding binding);
+    }
+
+    private interface Operator {
+        Predicate apply(CriteriaBuilder criteriaBuilder, Expression<?> field, Object value);
+    }
+
+    private record JoinStep(int parent, String attribute) {}
+
+    // one query: its values and the joins it has made so far
+    private static class Binding {
+        private static final int ROOT = -1;
+
+        private final CriteriaBuilder criteriaBuilder;
+        private final Root<?> root;
+        private final Object[] values;
+        private final List<JoinStep> steps;
+        private final From<?, ?>[] joins;
+
+        private Binding(
+                CriteriaBuilder criteriaBuilder,
+                Root<?> root,
+                Object[] values,
+                List<JoinStep> steps) {
+            this.criteriaBuilder = criteriaBuilder;
+            this.root = root;
+            this.values = values;
+            this.steps = steps;
+            this.joins = new From<?, ?>[steps.size()];
+        }
+
+        private From<?, ?> from(int join) {
+            if (join == ROOT) {
+                return root;
+            }
+            if (Objects.isNull(joins[join])) {
+                JoinStep step = steps.get(join);
+                joins[join] = from(step.parent()).join(step.attribute(), JoinType.LEFT);
+            }
+            return joins[join];
+        }
+    }
+
+    private record Junction(LogicOperator logicOperator, Condition[] conditions)
+            implements Condition {
+        @Override
+        public Predicate toPredicate(Binding binding) {
+            Predicate[] predicates = new Predicate[conditions.length];
+            for (int i = 0; i < conditions.length; i++) {
+                predicates[i] = conditions[i].toPredicate(binding);
+            }
+            return logicOperator == LogicOperator.AND
+                    ? binding.criteriaBuilder.and(predicates)
+                    : binding.criteriaBuilder.or(predicates);
+        }
+    }
+
+    private record Comparison(int join, String attribute, Operator operator, int parameter)
+            implements Condition {
+        @Override
+        public Predicate toPredicate(Binding binding) {
+            return operator.apply(
+                    binding.criteriaBuilder,
+                    binding.from(join).get(attribute),
+                    binding.values[parameter]);
+        }
+    }
+}
@@ -1,35 +1,65 @@
 package com.budget.project.filter.service;
 
 import com.budget.project.exception.AppException;
-import com.budget.project.filter.model.*;
+import com.budget.project.filter.model.Filter;
 import com.budget.project.model.db.*;
 import com.budget.project.service.UserService;
-import com.budget.project.utils.DateUtils;
+import com.budget.project.utils.CacheUtils;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import jakarta.persistence.EntityManager;
 import jakarta.persistence.criteria.*;
 
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
-import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 
-import java.util.*;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.Objects;
 
 @Service
 @Slf4j
-@RequiredArgsConstructor
 public class FilterService {
     private final UserService userService;
+    private final MeterRegistry meterRegistry;
+    private final EntityManager entityManager;
+    // saved views send the same filter with other values, each shape is compiled once per entity
+    private final Map<PlanKey, FilterPlan> plans;
+
+    public FilterService(
+            UserService userService,
+            MeterRegistry meterRegistry,
+            EntityManager entityManager,
+            @Value("${filter.plans.cache-size:1000}") int plansCacheSize) {
+        this.userService = userService;
+        this.meterRegistry = meterRegistry;
+        this.entityManager = entityManager;
+        this.plans = CacheUtils.lru(plansCacheSize);
+    }
 
-    public <T> Specification<T> getSpecification(Filter oldFilter, Class<T> tClass) {
-        return (root, query, criteriaBuilder) -> {
-            final Filter filter = normalizeFilter(oldFilter);
+    // the predicates are built when the query runs, so that is where the time is measured
+    public <T> Specification<T> getSpecification(Filter filter, Class<T> tClass) {
+        Timer timer = meterRegistry.timer("filter.specification", "entity", tClass.getSimpleName());
+        FilterShape shape;
+        FilterPlan plan;
+        try {
+            shape = FilterShape.of(filter);
+            plan = getPlan(shape, tClass);
+        } catch (AppException ex) {
+            throw ex;
+        } catch (Exception ex) {
+            log.warn("Problem with compiling filter, exception message: {}", ex.getMessage());
+            throw new AppException(HttpStatus.BAD_REQUEST);
+        }
+        Object[] values = shape.values();
+        return (root, query, criteriaBuilder) -> timer.record(() -> {
             try {
-                Predicate predicate = toPredicate(filter, criteriaBuilder, root);
+                Predicate predicate = plan.toPredicate(criteriaBuilder, root, values);
                 Predicate userPredicate = getUserPredicate(tClass, criteriaBuilder, root);
                 return criteriaBuilder.and(predicate, userPredicate);
             } catch (Exception ex) {
@@ -38,18 +68,37 @@ public class FilterService {
                         ex.getMessage());
                 throw new AppException(HttpStatus.BAD_REQUEST);
             }
-        };
+        });
+    }
+
+    // compiling runs outside the lock, two queries may compile the same new shape at once
+    private FilterPlan getPlan(FilterShape shape, Class<?> tClass) {
+        PlanKey key = new PlanKey(tClass, shape.key());
+        FilterPlan plan = plans.get(key);
+        meterRegistry
+                .counter(
+                        "filter.plans",
+                        "entity",
+                        tClass.getSimpleName(),
+                        "result",
+                        Objects.isNull(plan) ? "miss" : "hit")
+                .increment();
+        if (Objects.isNull(plan)) {
+            plan = FilterPlan.compile(shape, entityManager.getMetamodel().managedType(tClass));
+            plans.put(key, plan);
+        }
+        return plan;
+    }
+
+    public <T> Specification<T> getUserSpecification(Class<T> tClass) {
+        return (root, query, criteriaBuilder) -> getUserPredicate(tClass, criteriaBuilder, root);
     }
 
     private <T> Predicate getUserPredicate(
             Class<T> tClass, CriteriaBuilder criteriaBuilder, Root<T> root) {
         User user = userService.getLoggedUser();
         if (tClass.isAssignableFrom(Transaction.class)) {
-            return criteriaBuilder.or(
-                    criteriaBuilder.isMember(
-                            user, root.join("accountFrom", JoinType.LEFT).get("users")),
-                    criteriaBuilder.isMember(
-                            user, root.join("accountTo", JoinType.LEFT).get("users")));
+            return criteriaBuilder.equal(root.get("owner"), user);
         } else if (tClass.isAssignableFrom(Account.class)
                 || tClass.isAssignableFrom(Category.class)) {
             return criteriaBuilder.isMember(user, root.get("users"));
@@ -59,173 +108,5 @@ public class FilterService {
         }
     }
 
-    private <T> Predicate toPredicate(
-            Filter oldFilter, CriteriaBuilder criteriaBuilder, Root<T> root)
-            throws InvalidDataAccessApiUsageException {
-        final Filter filter = normalizeFilter(oldFilter);
-
-        List<Predicate> predicates = new ArrayList<>();
-        if (Objects.nonNull(filter.stringFilters())) {
-            predicates.addAll(getStringPredicates(filter.stringFilters(), criteriaBuilder, root));
-        }
-        if (Objects.nonNull(filter.dateFilters())) {
-            predicates.addAll(getDatePredicates(filter.dateFilters(), criteriaBuilder, root));
-        }
-        if (Objects.nonNull(filter.doubleFilters())) {
-            predicates.addAll(getDoublePredicates(filter.doubleFilters(), criteriaBuilder, root));
-        }
-        if (Objects.nonNull(filter.booleanFilters())) {
-            predicates.addAll(getBooleanPredicates(filter.booleanFilters(), criteriaBuilder, root));
-        }
-        if (Objects.nonNull(filter.accountTypeFilters())) {
-            predicates.addAll(
-                    getAccountTypePredicates(filter.accountTypeFilters(), criteriaBuilder, root));
-        }
-        if (Objects.nonNull(filter.transactionTypeFilters())) {
-            predicates.addAll(getTransactionTypePredicates(
-                    filter.transactionTypeFilters(), criteriaBuilder, root));
-        }
-
-        if (filter.subFilters() != null) {
-            List<Predicate> subPredicates = new ArrayList<>();
-            for (Filter subFilter : filter.subFilters()) {
-                Predicate subPredicate = toPredicate(subFilter, criteriaBuilder, root);
-                subPredicates.add(subPredicate);
-            }
-
-            if (filter.logicOperator() == LogicOperator.AND) {
-                return criteriaBuilder.and(subPredicates.toArray(new Predicate[0]));
-            } else if (filter.logicOperator() == LogicOperator.OR) {
-                return criteriaBuilder.or(subPredicates.toArray(new Predicate[0]));
-            }
-        }
-
-        switch (filter.logicOperator()) {
-            case OR -> {
-                return criteriaBuilder.or(predicates.toArray(new Predicate[0]));
-            }
-            case AND -> {
-                return criteriaBuilder.and(predicates.toArray(new Predicate[0]));
-            }
-            default -> {
-                return null;
-            }
-        }
-    }
-
-    private Filter normalizeFilter(Filter filter) {
-        if (Objects.nonNull(filter.subFilters())) {
-            filter = filter.toBuilder()
-                    .subFilters(filter.subFilters().stream()
-                            .filter(f -> Objects.nonNull(f) && Objects.nonNull(f.logicOperator()))
-                            .collect(Collectors.toSet()))
-                    .build();
-        }
-        return filter;
-    }
-
-    private <T> List<Predicate> getBooleanPredicates(
-            Set<BooleanExpression> booleanExpressions,
-            CriteriaBuilder criteriaBuilder,
-            Root<T> root) {
-        List<Predicate> predicates = new ArrayList<>();
-        for (BooleanExpression booleanExpression : booleanExpressions) {
-            predicates.add(criteriaBuilder.equal(
-                    root.get(booleanExpression.field()), booleanExpression.value()));
-        }
-        return predicates;
-    }
-
-    private <T> List<Predicate> getAccountTypePredicates(
-            Set<AccountTypeExpression> accountTypeExpressions,
-            CriteriaBuilder criteriaBuilder,
-            Root<T> root) {
-        List<Predicate> predicates = new ArrayList<>();
-        for (AccountTypeExpression accountTypeExpression : accountTypeExpressions) {
-            predicates.add(criteriaBuilder.equal(
-                    root.get(accountTypeExpression.field()), accountTypeExpression.value()));
-        }
-        return predicates;
-    }
-
-    private <T> List<Predicate> getTransactionTypePredicates(
-            Set<TransactionTypeExpression> transactionTypeExpressions,
-            CriteriaBuilder criteriaBuilder,
-            Root<T> root) {
-        List<Predicate> predicates = new ArrayList<>();
-        for (TransactionTypeExpression transactionTypeExpression : transactionTypeExpressions) {
-            predicates.add(criteriaBuilder.equal(
-                    root.get(transactionTypeExpression.field()),
-                    transactionTypeExpression.value()));
-        }
-        return predicates;
-    }
-
-    private <T> List<Predicate> getStringPredicates(
-            Set<StringExpression> stringExpressions, CriteriaBuilder criteriaBuilder, Root<T> root)
-            throws InvalidDataAccessApiUsageException {
-        List<Predicate> predicates = new ArrayList<>();
-        for (StringExpression stringExpression : stringExpressions) {
-            Expression expression = getField(stringExpression.field(), root);
-            switch (stringExpression.operator()) {
-                case EQUALS -> predicates.add(
-                        criteriaBuilder.equal(expression, stringExpression.value()));
-
-                case CONTAINS -> predicates.add(
-                        criteriaBuilder.like(expression, "%" + stringExpression.value() + "%"));
-            }
-        }
-        return predicates;
-    }
-
-    private Expression<?> getField(String field, Root<?> root) {
-        String[] split = field.split("\\.");
-        if (split.length == 1) {
-            return root.get(split[0]);
-        }
-        if (split.length == 2) {
-            return root.join(split[0], JoinType.LEFT).get(split[1]);
-        } else {
-            log.warn("three or more level of filtering is not implemented yet");
-            throw new AppException("Something went wrong with filtering", HttpStatus.BAD_REQUEST);
-        }
-    }
-
-    private <T> List<Predicate> getDoublePredicates(
-            Set<DoubleExpression> doubleExpressions,
-            CriteriaBuilder criteriaBuilder,
-            Root<T> root) {
-        List<Predicate> predicates = new ArrayList<>();
-        for (DoubleExpression doubleExpression : doubleExpressions) {
-            Expression expression = getField(doubleExpression.field(), root);
-            switch (doubleExpression.operator()) {
-                case EQ -> predicates.add(
-                        criteriaBuilder.equal(expression, doubleExpression.value()));
-                case LT -> predicates.add(
-                        criteriaBuilder.lessThan(expression, doubleExpression.value()));
-                case GT -> predicates.add(
-                        criteriaBuilder.greaterThan(expression, doubleExpression.value()));
-                case GTE -> predicates.add(
-                        criteriaBuilder.greaterThanOrEqualTo(expression, doubleExpression.value()));
-                case LTE -> predicates.add(
-                        criteriaBuilder.lessThanOrEqualTo(expression, doubleExpression.value()));
-            }
-        }
-        return predicates;
-    }
-
-    private <T> List<Predicate> getDatePredicates(
-            Set<DateExpression> dateExpressions, CriteriaBuilder criteriaBuilder, Root<T> root) {
-        List<Predicate> predicates = new ArrayList<>();
-        for (DateExpression dateExpression : dateExpressions) {
-            Expression expression = getField(dateExpression.field(), root);
-            switch (dateExpression.operator()) {
-                case BETWEEN -> predicates.add(criteriaBuilder.between(
-                        expression,
-                        DateUtils.parse(dateExpression.values().get(0)),
-                        DateUtils.parse(dateExpression.values().get(1))));
-            }
-        }
-        return predicates;
-    }
+    private record PlanKey(Class<?> entity, String shape) {}
 }
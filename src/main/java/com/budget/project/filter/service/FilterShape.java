@@ -0,0 +1,96 @@
+package com.budget.project.filter.service;
+
+import com.budget.project.filter.model.*;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * The structure of a normalized filter without its values: expressions and sub filters are
+ * sorted, so filters that differ only in their values, or in the order of their sets, have the
+ * same key and share one {@link FilterPlan}. The values are read in the order of the key.
+ */
+record FilterShape(
+        LogicOperator logicOperator, List<Term> terms, List<FilterShape> subFilters, String key) {
+
+    enum Kind {
+        STRING,
+        DATE,
+        DOUBLE,
+        BOOLEAN,
+        ACCOUNT_TYPE,
+        TRANSACTION_TYPE
+    }
+
+    // boolean and type expressions always compare for equality, they have no operator
+    record Term(Kind kind, String field, Enum<?> operator, Object value) {
+        String key() {
+            return kind + " " + field + (Objects.isNull(operator) ? "" : " " + operator);
+        }
+    }
+
+    static FilterShape of(Filter filter) {
+        List<Term> terms = new ArrayList<>();
+        List<FilterShape> subFilters = null;
+        if (Objects.nonNull(filter.subFilters())) {
+            // expressions next to sub filters are never applied, sub filters replace them
+            subFilters = filter.subFilters().stream()
+                    .filter(f -> Objects.nonNull(f) && Objects.nonNull(f.logicOperator()))
+                    .map(FilterShape::of)
+                    .sorted(Comparator.comparing(FilterShape::key))
+                    .toList();
+        } else {
+            add(terms, Kind.STRING, filter.stringFilters(), StringExpression::field,
+                    StringExpression::operator, StringExpression::value);
+            add(terms, Kind.DATE, filter.dateFilters(), DateExpression::field,
+                    DateExpression::operator, DateExpression::values);
+            add(terms, Kind.DOUBLE, filter.doubleFilters(), DoubleExpression::field,
+                    DoubleExpression::operator, DoubleExpression::value);
+            add(terms, Kind.BOOLEAN, filter.booleanFilters(), BooleanExpression::field,
+                    e -> null, BooleanExpression::value);
+            add(terms, Kind.ACCOUNT_TYPE, filter.accountTypeFilters(),
+                    AccountTypeExpression::field, e -> null, AccountTypeExpression::value);
+            add(terms, Kind.TRANSACTION_TYPE, filter.transactionTypeFilters(),
+                    TransactionTypeExpression::field, e -> null, TransactionTypeExpression::value);
+            terms.sort(Comparator.comparing(Term::key));
+        }
+        String children = Objects.isNull(subFilters)
+                ? terms.stream().map(Term::key).collect(Collectors.joining(", "))
+                : subFilters.stream().map(FilterShape::key).collect(Collectors.joining(", "));
+        String key = filter.logicOperator() + "(" + children + ")";
+        return new FilterShape(filter.logicOperator(), terms, subFilters, key);
+    }
+
+    // the values of the terms first, then those of the sub filters, the plan numbers them so
+    Object[] values() {
+        List<Object> values = new ArrayList<>();
+        addValues(values);
+        return values.toArray();
+    }
+
+    private void addValues(List<Object> values) {
+        terms.forEach(term -> values.add(term.value()));
+        if (Objects.nonNull(subFilters)) {
+            subFilters.forEach(subFilter -> subFilter.addValues(values));
+        }
+    }
+
+    private static <E> void add(
+            List<Term> terms,
+            Kind kind,
+            Set<E> expressions,
+            Function<E, String> field,
+            Function<E, Enum<?>> operator,
+            Function<E, Object> value) {
+        if (Objects.nonNull(expressions)) {
+            for (E expression : expressions) {
+                terms.add(new Term(
+                        kind,
+                        field.apply(expression),
+                        operator.apply(expression),
+                        value.apply(expression)));
+            }
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.budget.project.filter.service;
+
+/**
+ * A filter compiled to an SQL condition on the transaction columns of {@link SqlFilterService},
+ * with its values as the parameters of the {@code ?} placeholders, in order.
+ */
+public record SqlFilter(String condition, Object[] parameters) {
+    public static final SqlFilter NONE = new SqlFilter("TRUE", new Object[0]);
+}
@@ -0,0 +1,199 @@
+package com.budget.project.filter.service;
+
+import com.budget.project.exception.AppException;
+import com.budget.project.filter.model.Filter;
+import com.budget.project.filter.model.LogicOperator;
+import com.budget.project.filter.model.NumberOperator;
+import com.budget.project.filter.model.StringOperator;
+import com.budget.project.filter.service.FilterShape.Kind;
+import com.budget.project.utils.CacheUtils;
+import com.budget.project.utils.DateUtils;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+
+/**
+ * Compiles filters on transactions to parameterized SQL, for reads that need rows rather than
+ * entities. Only the columns below can be filtered on. A filter shape always compiles to the
+ * same text, so the statement is prepared once per connection and the driver reuses it, PgJDBC
+ * prepares it on the server after five runs.
+ */
+@Service
+@Slf4j
+public class SqlFilterService {
+    // the aliases of TransactionRowRepository
+    private static final Map<String, Column> TRANSACTION_COLUMNS = Map.ofEntries(
+            Map.entry("name", new Column("t.name", Kind.STRING)),
+            Map.entry("note", new Column("t.note", Kind.STRING)),
+            Map.entry("hash", new Column("t.hash", Kind.STRING)),
+            Map.entry("amount", new Column("t.amount", Kind.DOUBLE)),
+            Map.entry("date", new Column("t.date", Kind.DATE)),
+            Map.entry("need", new Column("t.need", Kind.BOOLEAN)),
+            Map.entry("future", new Column("t.future", Kind.BOOLEAN)),
+            Map.entry("transactionType", new Column("t.transaction_type", Kind.TRANSACTION_TYPE)),
+            Map.entry("category.name", new Column("c.name", Kind.STRING)),
+            Map.entry("category.hash", new Column("c.hash", Kind.STRING)),
+            Map.entry("category.income", new Column("c.income", Kind.BOOLEAN)),
+            Map.entry("subCategory.name", new Column("sc.name", Kind.STRING)),
+            Map.entry("subCategory.hash", new Column("sc.hash", Kind.STRING)),
+            Map.entry("accountFrom.name", new Column("a_from.name", Kind.STRING)),
+            Map.entry("accountFrom.hash", new Column("a_from.hash", Kind.STRING)),
+            Map.entry(
+                    "accountFrom.accountType",
+                    new Column("a_from.account_type", Kind.ACCOUNT_TYPE)),
+            Map.entry("accountTo.name", new Column("a_to.name", Kind.STRING)),
+            Map.entry("accountTo.hash", new Column("a_to.hash", Kind.STRING)),
+            Map.entry("accountTo.accountType", new Column("a_to.account_type", Kind.ACCOUNT_TYPE)));
+    private static final Binder VALUE = (value, parameters) -> parameters.add(value);
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Condition> conditions;
+
+    public SqlFilterService(
+            MeterRegistry meterRegistry,
+            @Value("${filter.plans.cache-size:1000}") int conditionsCacheSize) {
+        this.meterRegistry = meterRegistry;
+        this.conditions = CacheUtils.lru(conditionsCacheSize);
+    }
+
+    public SqlFilter getTransactionFilter(Filter filter) {
+        FilterShape shape;
+        Condition condition;
+        try {
+            shape = FilterShape.of(filter);
+            condition = getCondition(shape);
+        } catch (AppException ex) {
+            throw ex;
+        } catch (Exception ex) {
+            log.warn("Problem with compiling SQL filter, exception message: {}", ex.getMessage());
+            throw new AppException(HttpStatus.BAD_REQUEST);
+        }
+        Object[] values = shape.values();
+        List<Object> parameters = new ArrayList<>();
+        try {
+            for (int i = 0; i < values.length; i++) {
+                condition.binders()[i].bind(values[i], parameters);
+            }
+        } catch (Exception ex) {
+            log.warn("Problem with binding SQL filter, exception message: {}", ex.getMessage());
+            throw new AppException(HttpStatus.BAD_REQUEST);
+        }
+        return new SqlFilter(condition.sql(), parameters.toArray());
+    }
+
+    // compiling runs outside the lock, two queries may compile the same new shape at once
+    private Condition getCondition(FilterShape shape) {
+        Condition condition = conditions.get(shape.key());
+        meterRegistry
+                .counter(
+                        "filter.sql.plans",
+                        "entity",
+                        "Transaction",
+                        "result",
+                        Objects.isNull(condition) ? "miss" : "hit")
+                .increment();
+        if (Objects.isNull(condition)) {
+            if (Objects.isNull(shape.logicOperator())) {
+                throw invalid("filter without a logic operator");
+            }
+            StringBuilder sql = new StringBuilder();
+            List<Binder> binders = new ArrayList<>();
+            compile(shape, sql, binders);
+            condition = new Condition(sql.toString(), binders.toArray(new Binder[0]));
+            conditions.put(shape.key(), condition);
+        }
+        return condition;
+    }
+
+    // the terms first, then the sub filters, the order FilterShape reads the values in
+    private static void compile(FilterShape shape, StringBuilder sql, List<Binder> binders) {
+        List<FilterShape> subFilters =
+                Objects.isNull(shape.subFilters()) ? List.of() : shape.subFilters();
+        boolean and = shape.logicOperator() == LogicOperator.AND;
+        if (shape.terms().isEmpty() && subFilters.isEmpty()) {
+            // like the Criteria API, no conditions match everything with AND and nothing with OR
+            sql.append(and ? "TRUE" : "FALSE");
+            return;
+        }
+        String separator = and ? " AND " : " OR ";
+        sql.append('(');
+        int length = sql.length();
+        for (FilterShape.Term term : shape.terms()) {
+            sql.append(sql.length() == length ? "" : separator);
+            sql.append(comparison(term, binders));
+        }
+        for (FilterShape subFilter : subFilters) {
+            sql.append(sql.length() == length ? "" : separator);
+            compile(subFilter, sql, binders);
+        }
+        sql.append(')');
+    }
+
+    private static String comparison(FilterShape.Term term, List<Binder> binders) {
+        Column column = TRANSACTION_COLUMNS.get(term.field());
+        if (Objects.isNull(column) || column.kind() != term.kind()) {
+            throw invalid("field can't be filtered on: " + term.field());
+        }
+        if (Objects.isNull(term.operator())
+                && EnumSet.of(Kind.STRING, Kind.DATE, Kind.DOUBLE).contains(term.kind())) {
+            throw invalid("filter expression without an operator: " + term.field());
+        }
+        switch (term.kind()) {
+            case STRING -> {
+                if (term.operator() == StringOperator.CONTAINS) {
+                    binders.add((value, parameters) -> parameters.add("%" + value + "%"));
+                    return column.sql() + " LIKE ?";
+                }
+                binders.add(VALUE);
+                return column.sql() + " = ?";
+            }
+            case DOUBLE -> {
+                binders.add(VALUE);
+                return column.sql() + " " + switch ((NumberOperator) term.operator()) {
+                    case EQ -> "=";
+                    case LT -> "<";
+                    case GT -> ">";
+                    case LTE -> "<=";
+                    case GTE -> ">=";
+                } + " ?";
+            }
+            // BETWEEN is the only date operator
+            case DATE -> {
+                binders.add((value, parameters) -> {
+                    List<?> dates = (List<?>) value;
+                    parameters.add(DateUtils.parse((String) dates.get(0)));
+                    parameters.add(DateUtils.parse((String) dates.get(1)));
+                });
+                return column.sql() + " BETWEEN ? AND ?";
+            }
+            case ACCOUNT_TYPE, TRANSACTION_TYPE -> {
+                binders.add((value, parameters) -> parameters.add(((Enum<?>) value).name()));
+                return column.sql() + " = ?";
+            }
+            default -> {
+                binders.add(VALUE);
+                return column.sql() + " = ?";
+            }
+        }
+    }
+
+    private static AppException invalid(String message) {
+        log.warn("invalid SQL filter: {}", message);
+        return new AppException("Something went wrong with filtering", HttpStatus.BAD_REQUEST);
+    }
+
+    private interface Binder {
+        void bind(Object value, List<Object> parameters);
+    }
+
+    private record Column(String sql, Kind kind) {}
+
+    private record Condition(String sql, Binder[] binders) {}
+}
@@ -0,0 +1,34 @@
+package com.budget.project.metrics;
+
+import graphql.ExecutionResult;
+import graphql.execution.ExecutionContext;
+import graphql.execution.instrumentation.InstrumentationContext;
+import graphql.execution.instrumentation.InstrumentationState;
+import graphql.execution.instrumentation.SimpleInstrumentationContext;
+import graphql.execution.instrumentation.SimplePerformantInstrumentation;
+import graphql.execution.instrumentation.parameters.InstrumentationExecuteOperationParameters;
+
+import lombok.RequiredArgsConstructor;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Names the JDBC statements of a GraphQL request after its root fields, e.g. {@code
+ * getTransactionsPage}, see {@link OperationNames} for how the number of names is bounded.
+ */
+@Component
+@RequiredArgsConstructor
+public class GraphQlOperationInstrumentation extends SimplePerformantInstrumentation {
+    private final JdbcStatementMetrics jdbcStatementMetrics;
+
+    @Override
+    public InstrumentationContext<ExecutionResult> beginExecuteOperation(
+            InstrumentationExecuteOperationParameters parameters, InstrumentationState state) {
+        ExecutionContext context = parameters.getExecutionContext();
+        // the normalized operation is built once per request and shared with the cost check
+        String operation = OperationNames.of(
+                context.getNormalizedQueryTree().get(), context.getGraphQLSchema());
+        JdbcStatementMetrics.Scope scope = jdbcStatementMetrics.start(operation);
+        return SimpleInstrumentationContext.whenCompleted((result, ex) -> scope.close());
+    }
+}
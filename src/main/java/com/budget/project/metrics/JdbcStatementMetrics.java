@@ -0,0 +1,70 @@
+package com.budget.project.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import lombok.RequiredArgsConstructor;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.stereotype.Component;
+
+import java.util.Objects;
+
+/**
+ * Counts the SQL statements Hibernate prepares. Statements are tagged with the operation that is
+ * running on the current thread, see {@link #start}, and the number of statements of every
+ * finished operation is recorded, which makes N+1 queries visible per operation.
+ */
+@Component
+@RequiredArgsConstructor
+public class JdbcStatementMetrics implements StatementInspector {
+    private static final String NO_OPERATION = "none";
+    private static final ThreadLocal<Operation> CURRENT = new ThreadLocal<>();
+
+    private final MeterRegistry meterRegistry;
+
+    @Override
+    public String inspect(String sql) {
+        Operation operation = CURRENT.get();
+        String name = NO_OPERATION;
+        if (Objects.nonNull(operation)) {
+            operation.statements++;
+            name = operation.name;
+        }
+        meterRegistry.counter("jdbc.statements", "operation", name).increment();
+        return sql;
+    }
+
+    /** Attributes the statements of this thread to the operation until the scope is closed. */
+    public Scope start(String name) {
+        Operation previous = CURRENT.get();
+        Operation operation = new Operation(name);
+        CURRENT.set(operation);
+        return () -> {
+            if (Objects.isNull(previous)) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+            DistributionSummary.builder("jdbc.statements.per.operation")
+                    .tag("operation", name)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry)
+                    .record(operation.statements);
+        };
+    }
+
+    public interface Scope extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    private static final class Operation {
+        private final String name;
+        private long statements;
+
+        private Operation(String name) {
+            this.name = name;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.budget.project.metrics;
+
+import graphql.normalized.ExecutableNormalizedField;
+import graphql.normalized.ExecutableNormalizedOperation;
+import graphql.schema.GraphQLObjectType;
+import graphql.schema.GraphQLSchema;
+
+import java.util.Objects;
+import java.util.TreeSet;
+
+/**
+ * Names an operation after its root fields, for metric tags. The names are the distinct Query and
+ * Mutation fields of the schema in sorted order, fragments resolved and aliases ignored, so
+ * clients can't make up new tag values by aliasing, repeating or reordering fields. An operation
+ * with more than {@link #MAX_FIELDS} root fields is named {@link #MULTIPLE}.
+ */
+public final class OperationNames {
+    public static final String NONE = "none";
+    public static final String INTROSPECTION = "introspection";
+    public static final String MULTIPLE = "multiple";
+    private static final int MAX_FIELDS = 2;
+
+    private OperationNames() {}
+
+    public static String of(ExecutableNormalizedOperation operation, GraphQLSchema schema) {
+        TreeSet<String> names = new TreeSet<>();
+        boolean introspection = false;
+        for (ExecutableNormalizedField field : operation.getTopLevelFields()) {
+            String name = field.getName();
+            if (name.startsWith("__")) {
+                introspection = true;
+            } else if (isRootField(schema.getQueryType(), name)
+                    || isRootField(schema.getMutationType(), name)) {
+                names.add(name);
+            }
+        }
+        if (names.isEmpty()) {
+            return introspection ? INTROSPECTION : NONE;
+        }
+        return names.size() > MAX_FIELDS ? MULTIPLE : String.join(",", names);
+    }
+
+    private static boolean isRootField(GraphQLObjectType type, String name) {
+        return Objects.nonNull(type) && Objects.nonNull(type.getFieldDefinition(name));
+    }
+}
@@ -6,6 +6,11 @@ import jakarta.persistence.*;
 
 import lombok.*;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
+
 import java.util.*;
 
 @Entity
@@ -14,6 +19,8 @@ import java.util.*;
 @NoArgsConstructor
 @AllArgsConstructor
 @EqualsAndHashCode(onlyExplicitlyIncluded = true)
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "account")
+@NaturalIdCache(region = "account-hash")
 public class Account {
     @Id
     @GeneratedValue
@@ -24,7 +31,8 @@ public class Account {
 
     private String description;
 
-    @Column(nullable = false)
+    // balance changes go through AccountRepository so that concurrent updates are never lost
+    @Column(nullable = false, updatable = false)
     private Double balance;
 
     @Column(nullable = false)
@@ -36,10 +44,11 @@ public class Account {
     @OneToMany
     private Set<Account> subAccounts = new HashSet<>();
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @ToString.Exclude
     private Account parent;
 
+    @NaturalId
     @EqualsAndHashCode.Include
     @Column(nullable = false, unique = true)
     private String hash;
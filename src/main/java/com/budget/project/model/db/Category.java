@@ -6,6 +6,11 @@ import jakarta.persistence.*;
 
 import lombok.*;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
+
 import java.util.HashSet;
 import java.util.Set;
 import java.util.UUID;
@@ -16,6 +21,8 @@ import java.util.UUID;
 @NoArgsConstructor
 @AllArgsConstructor
 @EqualsAndHashCode(onlyExplicitlyIncluded = true)
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "category")
+@NaturalIdCache(region = "category-hash")
 public class Category {
     @Id
     @GeneratedValue
@@ -26,6 +33,7 @@ public class Category {
 
     private String color;
 
+    @NaturalId
     @EqualsAndHashCode.Include
     @Column(nullable = false, unique = true)
     private String hash;
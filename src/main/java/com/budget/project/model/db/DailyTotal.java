@@ -0,0 +1,34 @@
+package com.budget.project.model.db;
+
+import jakarta.persistence.*;
+
+import lombok.*;
+
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+/**
+ * Income or expense of a user on one day for a category and sub category. The rows are written
+ * with upserts by {@link com.budget.project.service.DailyTotalService} in the same transaction as
+ * the transactions they sum up, the entity is only read.
+ */
+@Data
+@Entity
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+public class DailyTotal {
+    @EmbeddedId
+    @EqualsAndHashCode.Include
+    private DailyTotalKey key;
+
+    @ToString.Exclude
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "category_id", insertable = false, updatable = false)
+    private Category category;
+
+    // a decimal in the database, so sums of many changes are exact
+    @JdbcTypeCode(SqlTypes.NUMERIC)
+    @Column(nullable = false, precision = 19, scale = 2)
+    private Double amount;
+}
@@ -0,0 +1,33 @@
+package com.budget.project.model.db;
+
+import jakarta.persistence.*;
+
+import lombok.*;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+@Data
+@Embeddable
+@NoArgsConstructor
+@AllArgsConstructor
+public class DailyTotalKey implements Serializable {
+    // stored instead of null, so the key can be the primary key
+    public static final long NO_SUB_CATEGORY = 0L;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(nullable = false)
+    private LocalDate date;
+
+    @Column(name = "category_id", nullable = false)
+    private Long categoryId;
+
+    @Column(name = "sub_category_id", nullable = false)
+    private Long subCategoryId;
+
+    @Column(nullable = false)
+    @Enumerated(EnumType.STRING)
+    private TransactionType transactionType;
+}
@@ -0,0 +1,62 @@
+package com.budget.project.model.db;
+
+import jakarta.persistence.*;
+
+import lombok.*;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+@Data
+@Entity
+@Builder(toBuilder = true)
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+public class ImportJob {
+    @Id
+    @GeneratedValue
+    private Long id;
+
+    @EqualsAndHashCode.Include
+    @Column(nullable = false, unique = true)
+    private String hash;
+
+    @Column(nullable = false)
+    private String format;
+
+    private String fileName;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private ImportJobStatus status;
+
+    @Column(nullable = false)
+    private Long rowsProcessed;
+
+    @Column(nullable = false)
+    private Long rowsFailed;
+
+    private String error;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    private LocalDateTime startedAt;
+
+    private LocalDateTime finishedAt;
+
+    @ManyToOne(cascade = CascadeType.DETACH)
+    private User user;
+
+    /** Rows processed per second since the job started, up to now for a running job. */
+    public Double getThroughput() {
+        if (Objects.isNull(startedAt)) {
+            return 0D;
+        }
+        LocalDateTime end = Objects.nonNull(finishedAt) ? finishedAt : LocalDateTime.now();
+        long millis = Math.max(Duration.between(startedAt, end).toMillis(), 1);
+        return rowsProcessed * 1000D / millis;
+    }
+}
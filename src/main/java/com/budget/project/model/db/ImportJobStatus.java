@@ -0,0 +1,8 @@
+package com.budget.project.model.db;
+
+public enum ImportJobStatus {
+    PENDING,
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
@@ -4,6 +4,11 @@ import jakarta.persistence.*;
 
 import lombok.*;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
+
 import java.util.UUID;
 
 @Entity
@@ -12,6 +17,8 @@ import java.util.UUID;
 @NoArgsConstructor
 @AllArgsConstructor
 @EqualsAndHashCode(onlyExplicitlyIncluded = true)
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "sub-category")
+@NaturalIdCache(region = "sub-category-hash")
 public class SubCategory {
     @Id
     @GeneratedValue
@@ -22,6 +29,7 @@ public class SubCategory {
 
     private String color;
 
+    @NaturalId
     @EqualsAndHashCode.Include
     @Column(nullable = false, unique = true)
     private String hash;
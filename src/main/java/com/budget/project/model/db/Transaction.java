@@ -39,12 +39,13 @@ public class Transaction {
     @Column(nullable = false, unique = true)
     private String hash;
 
-    @ManyToOne
+    // the relations are lazy, the GraphQL controllers load them for a whole page at once
+    @ManyToOne(fetch = FetchType.LAZY)
     @OnDelete(action = OnDeleteAction.CASCADE)
     @JoinColumn(name = "account_to_id")
     private Account accountTo;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @OnDelete(action = OnDeleteAction.CASCADE)
     @JoinColumn(name = "account_from_id")
     private Account accountFrom;
@@ -53,10 +54,10 @@ public class Transaction {
     @Enumerated(EnumType.STRING)
     private TransactionType transactionType;
 
-    @ManyToOne(cascade = CascadeType.DETACH)
+    @ManyToOne(fetch = FetchType.LAZY, cascade = CascadeType.DETACH)
     private Category category;
 
-    @ManyToOne(cascade = CascadeType.DETACH)
+    @ManyToOne(fetch = FetchType.LAZY, cascade = CascadeType.DETACH)
     private SubCategory subCategory;
 
     @Column(nullable = false)
@@ -65,12 +66,24 @@ public class Transaction {
 
     private Boolean future = false;
 
+    /**
+     * The user who owns the accounts of this transaction. It duplicates the ownership kept in
+     * {@code user_account}, so queries can scope by a plain indexed column instead of checking
+     * the users of both accounts.
+     */
+    @ToString.Exclude
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    @JoinColumn(name = "owner_id", nullable = false)
+    private User owner;
+
     public static Transaction of(
             TransactionInput transactionInput,
             Account accountFrom,
             Account accountTo,
             Category category,
-            SubCategory subCategory) {
+            SubCategory subCategory,
+            User owner) {
         return Transaction.builder()
                 .name(transactionInput.name())
                 .note(transactionInput.note())
@@ -84,6 +97,7 @@ public class Transaction {
                 .future(false)
                 .subCategory(subCategory)
                 .currency(transactionInput.currency())
+                .owner(owner)
                 .transactionType(transactionInput.transactionType())
                 .build();
     }
@@ -3,6 +3,8 @@ package com.budget.project.model.db;
 import jakarta.persistence.*;
 import java.util.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.JdbcTypeCode;
 import org.hibernate.type.SqlTypes;
 import org.springframework.security.core.GrantedAuthority;
@@ -33,6 +35,7 @@ public class User implements UserDetails {
     private Settings settings;
 
     @ManyToMany(cascade = {CascadeType.PERSIST, CascadeType.MERGE})
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "user-accounts")
     @JoinTable(
             name = "user_account",
             joinColumns = {@JoinColumn(name = "user_id")},
@@ -47,6 +50,7 @@ public class User implements UserDetails {
     Set<Trip> trips = new HashSet<>();
 
     @ManyToMany(cascade = {CascadeType.ALL})
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "user-categories")
     @JoinTable(
             name = "user_category",
             joinColumns = {@JoinColumn(name = "user_id")},
@@ -0,0 +1,6 @@
+package com.budget.project.model.dto;
+
+import java.util.List;
+
+/** Relay connection, {@code totalCount} is null unless the client selected it. */
+public record Connection<T>(List<Edge<T>> edges, PageInfo pageInfo, Long totalCount) {}
@@ -1,3 +1,25 @@
 package com.budget.project.model.dto;
 
-public record CustomPage(int number, int size) {}
+import com.budget.project.exception.AppException;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
+
+public record CustomPage(int number, int size) {
+    public static final int MAX_SIZE = 100;
+
+    public PageRequest toPageRequest() {
+        return toPageRequest(Sort.unsorted());
+    }
+
+    /** The page to read, a client can't ask for more than {@link #MAX_SIZE} rows at once. */
+    public PageRequest toPageRequest(Sort sort) {
+        if (number < 0 || size < 1 || size > MAX_SIZE) {
+            throw new AppException(
+                    "page number can't be negative and size has to be between 1 and " + MAX_SIZE,
+                    HttpStatus.BAD_REQUEST);
+        }
+        return PageRequest.of(number, size, sort);
+    }
+}
@@ -0,0 +1,12 @@
+package com.budget.project.model.dto;
+
+import java.util.List;
+
+public record Dashboard(
+        IncomeExpense incomeExpense,
+        List<Double> expensesPerDayOfTheWeek,
+        List<Double> expensesPerMonth,
+        List<AccountDto> topAccounts,
+        List<CategoryAmount> expenseByCategory,
+        List<CategoryAmount> incomeByCategory,
+        List<BudgetDto> budgets) {}
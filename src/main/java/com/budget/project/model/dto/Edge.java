@@ -0,0 +1,3 @@
+package com.budget.project.model.dto;
+
+public record Edge<T>(String cursor, T node) {}
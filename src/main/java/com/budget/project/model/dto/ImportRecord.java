@@ -0,0 +1,19 @@
+package com.budget.project.model.dto;
+
+import com.budget.project.model.db.TransactionType;
+
+import java.time.LocalDateTime;
+
+/**
+ * One imported row. {@code from} and {@code to} are account or category names depending on the
+ * type: an expense goes from an account to a category, an income from a category to an account
+ * and a transfer between two accounts.
+ */
+public record ImportRecord(
+        LocalDateTime date,
+        TransactionType type,
+        String from,
+        String to,
+        Double amount,
+        String note,
+        Boolean need) {}
@@ -0,0 +1,4 @@
+package com.budget.project.model.dto;
+
+public record PageInfo(
+        boolean hasNextPage, boolean hasPreviousPage, String startCursor, String endCursor) {}
@@ -0,0 +1,20 @@
+package com.budget.project.model.dto;
+
+import com.budget.project.model.db.Currency;
+import com.budget.project.model.db.TransactionType;
+
+import java.time.LocalDateTime;
+
+public record TransactionRow(
+        String hash,
+        String name,
+        String note,
+        Double amount,
+        LocalDateTime date,
+        Boolean need,
+        TransactionType transactionType,
+        Currency currency,
+        String categoryName,
+        String subCategoryName,
+        String accountFromName,
+        String accountToName) {}
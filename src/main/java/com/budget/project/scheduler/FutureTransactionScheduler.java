@@ -1,45 +1,96 @@
 package com.budget.project.scheduler;
 
-import com.budget.project.model.db.Account;
-import com.budget.project.model.db.Transaction;
-import com.budget.project.service.TransactionService;
+import com.budget.project.metrics.JdbcStatementMetrics;
+import com.budget.project.service.AccountService;
+import com.budget.project.service.projection.DueTransaction;
+import com.budget.project.service.repository.TransactionRepository;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Settles future transactions whose date has passed. Due transactions are read in pages ordered
+ * by id; every page clears its {@code future} flags and applies one balance delta per account in
+ * its own transaction. A crashed run leaves only whole pages settled, so running it again picks up
+ * exactly the transactions that are still due.
+ */
+@Slf4j
 @Configuration
 @EnableScheduling
 @RequiredArgsConstructor
 public class FutureTransactionScheduler {
 
-    private final TransactionService transactionService;
+    private final TransactionRepository transactionRepository;
+    private final AccountService accountService;
+    private final TransactionTemplate transactionTemplate;
+    private final JdbcStatementMetrics jdbcStatementMetrics;
+
+    @Value("${scheduler.future.page-size:500}")
+    private int pageSize;
+
     @Async
     @Scheduled(cron = "0 0 0 * * ?")
-    //TODO write tests
     public void addFutureTransactionToBalance() {
-        for (Transaction transaction: transactionService.getFutureTransactions()){
-            switch (transaction.getTransactionType()){
-                case EXPENSE ->
-                    subtractFromBalance(transaction.getAccountFrom(), transaction.getAmount());
+        try (JdbcStatementMetrics.Scope scope = jdbcStatementMetrics.start("settleFuture")) {
+            settle(LocalDateTime.now());
+        }
+    }
 
-                case INCOME -> {
-                    addToBalance(transaction.getAccountTo(), transaction.getAmount());
-                }
-                case TRANSFER -> {
-                    subtractFromBalance(transaction.getAccountFrom(), transaction.getAmount());
-                    addToBalance(transaction.getAccountTo(), transaction.getAmount());
-                }
+    public long settle(LocalDateTime date) {
+        long settled = 0;
+        Long afterId = 0L;
+        while (true) {
+            Long lastId = afterId;
+            List<DueTransaction> page =
+                    transactionTemplate.execute(status -> settlePage(date, lastId));
+            if (Objects.isNull(page) || page.isEmpty()) {
+                break;
             }
+            settled += page.size();
+            afterId = page.get(page.size() - 1).getId();
         }
+        log.debug("settled {} future transactions", settled);
+        return settled;
     }
 
-    private void subtractFromBalance(Account account, Double amount) {
-        account.setBalance(account.getBalance() - amount);
+    private List<DueTransaction> settlePage(LocalDateTime date, Long afterId) {
+        List<DueTransaction> page = transactionRepository.findDueTransactions(
+                date, afterId, PageRequest.of(0, pageSize));
+        if (page.isEmpty()) {
+            return page;
+        }
+        Map<Long, Double> deltas = new HashMap<>();
+        for (DueTransaction transaction : page) {
+            Double amount = transaction.getAmount();
+            switch (transaction.getTransactionType()) {
+                case EXPENSE -> addDelta(deltas, transaction.getAccountFromId(), -amount);
+                case INCOME -> addDelta(deltas, transaction.getAccountToId(), amount);
+                case TRANSFER -> {
+                    addDelta(deltas, transaction.getAccountFromId(), -amount);
+                    addDelta(deltas, transaction.getAccountToId(), amount);
+                }
+            }
+        }
+        transactionRepository.clearFuture(page.stream().map(DueTransaction::getId).toList());
+        deltas.forEach(accountService::changeBalance);
+        return page;
     }
 
-    private void addToBalance(Account account, Double amount) {
-        account.setBalance(account.getBalance() + amount);
+    private void addDelta(Map<Long, Double> deltas, Long accountId, Double delta) {
+        if (Objects.nonNull(accountId)) {
+            deltas.merge(accountId, delta, Double::sum);
+        }
     }
 }
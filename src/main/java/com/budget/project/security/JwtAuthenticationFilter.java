@@ -1,5 +1,7 @@
 package com.budget.project.security;
 
+import io.jsonwebtoken.Claims;
+
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -10,6 +12,7 @@ import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
 
 import org.apache.logging.log4j.util.Strings;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -20,6 +23,7 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.util.Objects;
+import java.util.Optional;
 
 @Component
 @RequiredArgsConstructor
@@ -29,6 +33,9 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     private final JwtService jwtService;
     private final UserDetailsService userDetailsService;
 
+    @Value("${jwt.claims.trusted:false}")
+    private boolean trustClaims;
+
     @Override
     @SneakyThrows
     protected void doFilterInternal(
@@ -36,30 +43,44 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             @NonNull HttpServletResponse response,
             @NonNull FilterChain filterChain) {
         final String authHeader = request.getHeader("Authorization");
-        final String jwt;
+        final Claims claims;
         final String userEmail;
         if (Strings.isEmpty(authHeader) || !authHeader.startsWith(BEARER_PREFIX)) {
             filterChain.doFilter(request, response);
             return;
         }
-        jwt = authHeader.substring(BEARER_PREFIX.length());
-        userEmail = jwtService.extractUsername(jwt);
+        claims = jwtService.extractAllClaims(authHeader.substring(BEARER_PREFIX.length()));
+        userEmail = claims.getSubject();
         // check if user is authenticated already
         if (Objects.nonNull(userEmail)
                 && Objects.isNull(SecurityContextHolder.getContext().getAuthentication())) {
-            UserDetails userDetails = this.userDetailsService.loadUserByUsername(userEmail);
-            if (jwtService.isTokenValid(jwt, userDetails)) {
-                UsernamePasswordAuthenticationToken authToken =
+            Optional<JwtPrincipal> principal =
+                    trustClaims ? jwtService.extractPrincipal(claims) : Optional.empty();
+            if (principal.isPresent()) {
+                setAuthentication(
+                        request,
                         new UsernamePasswordAuthenticationToken(
-                                userDetails, null, userDetails.getAuthorities());
-                authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                SecurityContextHolder.getContext().setAuthentication(authToken);
-                log.debug("setting SecurityContext");
+                                principal.get(), null, principal.get().getAuthorities()));
+            } else {
+                UserDetails userDetails = this.userDetailsService.loadUserByUsername(userEmail);
+                if (jwtService.isTokenValid(claims, userDetails)) {
+                    setAuthentication(
+                            request,
+                            new UsernamePasswordAuthenticationToken(
+                                    userDetails, null, userDetails.getAuthorities()));
+                }
             }
         }
         filterChain.doFilter(request, response);
     }
 
+    private void setAuthentication(
+            HttpServletRequest request, UsernamePasswordAuthenticationToken authToken) {
+        authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+        SecurityContextHolder.getContext().setAuthentication(authToken);
+        log.debug("setting SecurityContext");
+    }
+
     private boolean isJwtCorrect(String authHeader) {
         return Objects.nonNull(authHeader) && authHeader.startsWith(BEARER_PREFIX);
     }
@@ -0,0 +1,27 @@
+package com.budget.project.security;
+
+import com.budget.project.model.db.Role;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.security.Principal;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Authenticated user built only from the claims of a verified JWT. The {@link
+ * com.budget.project.model.db.User} entity is loaded from the database only when a service asks
+ * for it.
+ */
+public record JwtPrincipal(Long id, String email, String hash, Role role) implements Principal {
+
+    @Override
+    public String getName() {
+        return email;
+    }
+
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return List.of(new SimpleGrantedAuthority(role.name()));
+    }
+}
@@ -1,16 +1,22 @@
 package com.budget.project.security;
 
 import com.budget.project.exception.AppException;
+import com.budget.project.model.db.Role;
+import com.budget.project.model.db.User;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import java.security.Key;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
 import java.util.function.Function;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -23,6 +29,9 @@ import org.springframework.stereotype.Service;
 @Slf4j
 @RequiredArgsConstructor
 public class JwtService {
+    private static final String USER_ID_CLAIM = "uid";
+    private static final String USER_HASH_CLAIM = "hash";
+    private static final String ROLE_CLAIM = "role";
 
     @Value("${jwt.signing.key}")
     private String SIGNING_KEY;
@@ -30,12 +39,50 @@ public class JwtService {
     @Value("${jwt.expiration}")
     private long EXPIRATION_TIME;
 
+    private Key signingKey;
+
+    private JwtParser jwtParser;
+
+    // the key and the parser are immutable, so they are built once and shared between requests
+    @PostConstruct
+    void init() {
+        signingKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(SIGNING_KEY));
+        jwtParser = Jwts.parserBuilder().setSigningKey(signingKey).build();
+    }
+
     public String extractUsername(String jwt) {
         return extractClaim(jwt, Claims::getSubject);
     }
 
     public String generateToken(UserDetails userDetails) {
-        return generateToken(new HashMap<>(), userDetails);
+        Map<String, Object> claims = new HashMap<>();
+        if (userDetails instanceof User user) {
+            claims.put(USER_ID_CLAIM, user.getId());
+            claims.put(USER_HASH_CLAIM, user.getHash());
+            claims.put(ROLE_CLAIM, user.getRole().name());
+        }
+        return generateToken(claims, userDetails);
+    }
+
+    /**
+     * Builds the principal from the user claims of a verified token. Tokens issued without these
+     * claims return an empty optional.
+     */
+    public Optional<JwtPrincipal> extractPrincipal(String jwt) {
+        return extractPrincipal(extractAllClaims(jwt));
+    }
+
+    public Optional<JwtPrincipal> extractPrincipal(Claims claims) {
+        Number id = claims.get(USER_ID_CLAIM, Number.class);
+        String role = claims.get(ROLE_CLAIM, String.class);
+        if (Objects.isNull(id) || Objects.isNull(role)) {
+            return Optional.empty();
+        }
+        return Optional.of(new JwtPrincipal(
+                id.longValue(),
+                claims.getSubject(),
+                claims.get(USER_HASH_CLAIM, String.class),
+                Role.valueOf(role)));
     }
 
     public <T> T extractClaim(String jwt, Function<Claims, T> claimsResolver) {
@@ -49,39 +96,29 @@ public class JwtService {
                 .setSubject(userDetails.getUsername())
                 .setIssuedAt(new Date(System.currentTimeMillis()))
                 .setExpiration(new Date(System.currentTimeMillis() + EXPIRATION_TIME))
-                .signWith(getSinginKey(), SignatureAlgorithm.HS256)
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
     public boolean isTokenValid(String jwt, UserDetails userDetails) {
-        final String username = extractUsername(jwt);
-        if (isTokenExpired(jwt)) {
-            log.debug("token is expired");
-        }
-        return (username.equals(userDetails.getUsername())) && !isTokenExpired(jwt);
+        return isTokenValid(extractAllClaims(jwt), userDetails);
     }
 
-    public boolean isTokenExpired(String jwt) {
-        try{
-            extractClaim(jwt, Claims::getExpiration);
-            return false;
-        }catch (ExpiredJwtException ex ){
+    // the parser already rejects expired tokens, so only the subject is left to check
+    public boolean isTokenValid(Claims claims, UserDetails userDetails) {
+        return claims.getSubject().equals(userDetails.getUsername());
+    }
+
+    /**
+     * Verifies the token and returns its claims. Callers that need more than one claim should
+     * parse the token once with this method and read the claims from the result.
+     */
+    public Claims extractAllClaims(String jwt) {
+        try {
+            return jwtParser.parseClaimsJws(jwt).getBody();
+        } catch (ExpiredJwtException ex) {
             log.debug("Token has expired");
             throw new AppException("Token has expired", HttpStatus.UNAUTHORIZED);
         }
     }
-
-    private Claims extractAllClaims(String jwt) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSinginKey())
-                .build()
-                .parseClaimsJws(jwt)
-                .getBody();
-    }
-
-    private Key getSinginKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(SIGNING_KEY);
-        return Keys.hmacShaKeyFor(keyBytes);
-    }
-
 }
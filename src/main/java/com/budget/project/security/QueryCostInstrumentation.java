@@ -0,0 +1,156 @@
+package com.budget.project.security;
+
+import com.budget.project.metrics.OperationNames;
+
+import graphql.ExecutionResult;
+import graphql.GraphqlErrorBuilder;
+import graphql.execution.AbortExecutionException;
+import graphql.execution.ExecutionContext;
+import graphql.execution.instrumentation.InstrumentationContext;
+import graphql.execution.instrumentation.InstrumentationState;
+import graphql.execution.instrumentation.SimpleInstrumentationContext;
+import graphql.execution.instrumentation.SimplePerformantInstrumentation;
+import graphql.execution.instrumentation.parameters.InstrumentationExecuteOperationParameters;
+import graphql.normalized.ExecutableNormalizedField;
+import graphql.normalized.ExecutableNormalizedOperation;
+import graphql.schema.GraphQLSchema;
+import graphql.schema.GraphQLType;
+import graphql.schema.GraphQLTypeUtil;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.graphql.execution.ErrorType;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Rejects operations that are nested too deep or would read too many rows before anything runs.
+ * The cost of a field is its weight times the number of objects it is resolved for, a list
+ * multiplies the objects below it by the page size, {@code first} or {@link #LIST_SIZE} when the
+ * client can't size it. The cost of operations that run is recorded, rejected ones are only
+ * counted, both under the name {@link OperationNames} gives the operation.
+ */
+@Slf4j
+@Component
+public class QueryCostInstrumentation extends SimplePerformantInstrumentation {
+    // lists without a page or first argument, e.g. sub accounts, are assumed to be this long
+    private static final int LIST_SIZE = 10;
+
+    // fields that run aggregates or several queries of their own, scalars weigh nothing otherwise
+    private static final Map<String, Integer> WEIGHTS = Map.of(
+            "Query.dashboard", 20,
+            "Query.getBudgets", 10,
+            "Query.getPlannedIncome", 5,
+            "Query.getAmountByCategory", 5,
+            "Query.getIncomeExpense", 5,
+            "Query.getExpensesPerDayOfTheWeek", 5,
+            "Query.getExpensesPerMonth", 5,
+            "TransactionConnection.totalCount", 10);
+
+    private final MeterRegistry meterRegistry;
+    private final double maxCost;
+    private final int maxDepth;
+
+    public QueryCostInstrumentation(
+            MeterRegistry meterRegistry,
+            @Value("${graphql.limits.max-cost:5000}") double maxCost,
+            @Value("${graphql.limits.max-depth:10}") int maxDepth) {
+        this.meterRegistry = meterRegistry;
+        this.maxCost = maxCost;
+        this.maxDepth = maxDepth;
+    }
+
+    @Override
+    public InstrumentationContext<ExecutionResult> beginExecuteOperation(
+            InstrumentationExecuteOperationParameters parameters, InstrumentationState state) {
+        ExecutionContext context = parameters.getExecutionContext();
+        GraphQLSchema schema = context.getGraphQLSchema();
+        ExecutableNormalizedOperation operation = context.getNormalizedQueryTree().get();
+        // introspection is bounded by the schema, GraphiQL asks for it on every load
+        List<ExecutableNormalizedField> fields = operation.getTopLevelFields().stream()
+                .filter(field -> !field.getName().startsWith("__"))
+                .toList();
+        double cost = 0;
+        int depth = 0;
+        for (ExecutableNormalizedField field : fields) {
+            cost += cost(field, schema, 1, null);
+            depth = Math.max(depth, depth(field));
+        }
+        String name = OperationNames.of(operation, schema);
+
+        if (depth > maxDepth) {
+            reject(name, "depth", "operation depth " + depth + " exceeds the limit of "
+                    + maxDepth);
+        }
+        if (cost > maxCost) {
+            reject(name, "cost", "operation cost " + (long) cost + " exceeds the limit of "
+                    + (long) maxCost);
+        }
+        DistributionSummary.builder("graphql.operation.cost")
+                .tag("operation", name)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(cost);
+        return SimpleInstrumentationContext.noOp();
+    }
+
+    private void reject(String operation, String reason, String message) {
+        log.warn("rejected {}: {}", operation, message);
+        meterRegistry
+                .counter("graphql.operation.rejected", "operation", operation, "reason", reason)
+                .increment();
+        throw new AbortExecutionException(List.of(GraphqlErrorBuilder.newError()
+                .errorType(ErrorType.BAD_REQUEST)
+                .message(message)
+                .build()));
+    }
+
+    // the page size of a paged field applies to the first list below it, e.g. the content
+    private double cost(
+            ExecutableNormalizedField field, GraphQLSchema schema, double parents, Integer size) {
+        Integer requested = requestedSize(field);
+        if (Objects.nonNull(requested)) {
+            size = requested;
+        }
+        GraphQLType type = GraphQLTypeUtil.unwrapNonNull(field.getType(schema));
+        double objects = parents;
+        if (GraphQLTypeUtil.isList(type)) {
+            objects = parents * (Objects.isNull(size) ? LIST_SIZE : size);
+            size = null;
+        }
+        int defaultWeight = GraphQLTypeUtil.isLeaf(GraphQLTypeUtil.unwrapAll(type)) ? 0 : 1;
+        double cost = objects * WEIGHTS.getOrDefault(
+                field.getSingleObjectTypeName() + "." + field.getName(), defaultWeight);
+        for (ExecutableNormalizedField child : field.getChildren()) {
+            cost += cost(child, schema, objects, size);
+        }
+        return cost;
+    }
+
+    private Integer requestedSize(ExecutableNormalizedField field) {
+        Object page = field.getResolvedArguments().get("page");
+        if (page instanceof Map<?, ?> pageArgument
+                && pageArgument.get("size") instanceof Integer pageSize) {
+            return Math.max(pageSize, 0);
+        }
+        if (field.getResolvedArguments().get("first") instanceof Integer first) {
+            return Math.max(first, 0);
+        }
+        return null;
+    }
+
+    private int depth(ExecutableNormalizedField field) {
+        int depth = 0;
+        for (ExecutableNormalizedField child : field.getChildren()) {
+            depth = Math.max(depth, depth(child));
+        }
+        return depth + 1;
+    }
+}
@@ -1,6 +1,7 @@
 package com.budget.project.security;
 
 import com.budget.project.exception.model.CustomForbiddenEntryPoint;
+import com.budget.project.model.db.Role;
 
 import lombok.RequiredArgsConstructor;
 
@@ -34,9 +35,13 @@ public class securityConfig {
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
         return http.csrf(AbstractHttpConfigurer::disable)
                 .authorizeHttpRequests(authorizationRequest -> authorizationRequest
-                        .requestMatchers("/import", "/onemoney")
+                        .requestMatchers("/import", "/import/*", "/onemoney")
                         .authenticated()
-                        .requestMatchers("/graphiql", "/vendor/**", "/graphql")
+                        // metrics name every operation and count statements per operation, only
+                        // for the scraper's account, not for every user
+                        .requestMatchers("/actuator/prometheus")
+                        .hasAuthority(Role.ADMIN.name())
+                        .requestMatchers("/graphiql", "/vendor/**", "/graphql", "/actuator/health")
                         .permitAll())
                 .cors(cors -> cors.configurationSource(corsConfigurationSource()))
                 .exceptionHandling(exceptionHandling ->
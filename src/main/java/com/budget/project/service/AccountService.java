@@ -9,7 +9,11 @@ import com.budget.project.model.db.User;
 import com.budget.project.model.dto.CustomPage;
 import com.budget.project.model.dto.request.input.AccountInput;
 import com.budget.project.service.repository.AccountRepository;
+import com.budget.project.service.repository.NaturalIdRepository;
+import com.budget.project.utils.BatchUtils;
 
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManagerFactory;
 import jakarta.transaction.Transactional;
 
 import lombok.RequiredArgsConstructor;
@@ -17,14 +21,13 @@ import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
 
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Objects;
-import java.util.Optional;
+import java.util.*;
+import java.util.function.Function;
 
 @Service
 @RequiredArgsConstructor
@@ -35,6 +38,8 @@ public class AccountService {
     private final AccountRepository accountRepository;
     private final FilterService filterService;
     private final TransactionService transactionService;
+    private final NaturalIdRepository naturalIdRepository;
+    private final EntityManagerFactory entityManagerFactory;
 
     @SneakyThrows
     public Account createAccount(AccountInput accountInput) {
@@ -54,11 +59,10 @@ public class AccountService {
     public Page<Account> getAccountsPage(CustomPage page, Filter filter) {
         if (Objects.isNull(filter) || Objects.isNull(filter.logicOperator())) {
             return accountRepository.findAllByUsersContaining(
-                    PageRequest.of(page.number(), page.size()), userService.getLoggedUser());
+                    page.toPageRequest(), userService.getLoggedUser());
         }
         return accountRepository.findAll(
-                filterService.getSpecification(filter, Account.class),
-                PageRequest.of(page.number(), page.size()));
+                filterService.getSpecification(filter, Account.class), page.toPageRequest());
     }
 
     public List<Account> getAccounts(Filter filter) {
@@ -68,10 +72,13 @@ public class AccountService {
         return accountRepository.findAll(filterService.getSpecification(filter, Account.class));
     }
 
+    // both the account and the accounts of the user are read from the second-level cache
     @SneakyThrows
     public Account getAccount(String hash) {
-        return accountRepository
-                .findByHashAndUsersContainingIgnoreCase(hash, userService.getLoggedUser())
+        User user = userService.getLoggedUser();
+        return naturalIdRepository
+                .findByHash(Account.class, hash)
+                .filter(account -> user.getAccounts().contains(account))
                 .orElseThrow(() -> {
                     log.warn("can't find account with hash: {}", hash);
                     return new AppException(
@@ -79,6 +86,23 @@ public class AccountService {
                 });
     }
 
+    // the relations below resolve a whole GraphQL response, each with one query
+    public <T> Map<T, Account> getRelatedAccounts(
+            Collection<T> owners, Function<T, Account> relation) {
+        return BatchUtils.resolve(
+                owners, relation, Account::getId, accountRepository::findAllById);
+    }
+
+    public Map<Account, Set<Account>> getSubAccounts(Collection<Account> accounts) {
+        Map<Account, Set<Account>> subAccounts = new HashMap<>();
+        if (!accounts.isEmpty()) {
+            for (Account account : accountRepository.findAllWithSubAccounts(accounts)) {
+                subAccounts.put(account, account.getSubAccounts());
+            }
+        }
+        return subAccounts;
+    }
+
     @SneakyThrows
     public Optional<Account> getAccountByName(String name) {
         return accountRepository.findByNameAndUsersContainingIgnoreCase(
@@ -88,8 +112,9 @@ public class AccountService {
     @SneakyThrows
     public void deleteAccount(String hash, Boolean removeSub) {
         Account account = this.getAccount(hash);
-        List<Transaction> tempTransactions = new ArrayList<>(account.getTransactions());
-        for (Transaction transaction : tempTransactions) {
+        // incomes and transfers into the account too, so their daily totals and the balances of
+        // the other accounts are rolled back before the database cascade would remove them
+        for (Transaction transaction : transactionService.getAccountTransactions(account)) {
             transactionService.deleteTransaction(transaction);
         }
         userService.getLoggedUser().getAccounts().remove(account);
@@ -107,9 +132,40 @@ public class AccountService {
                 .name(accountInput.name())
                 .currency(accountInput.currency())
                 .build();
+        accountRepository.setBalance(account.getId(), account.getBalance());
         return accountRepository.save(account);
     }
 
+    /**
+     * Applies the delta in the database in one statement, so concurrent changes of the same
+     * account can't overwrite each other. The loaded entity is updated only to keep it in sync.
+     */
+    public void changeBalance(Account account, Double delta) {
+        changeBalance(account.getId(), delta);
+        account.setBalance(account.getBalance() + delta);
+    }
+
+    /**
+     * Changes the balance of an account that may not be loaded, e.g. by the scheduler. Hibernate
+     * doesn't see the statement, so the account is evicted from the second-level cache here, and
+     * once more after the transaction, as a concurrent load may have cached the balance from
+     * before the change in the meantime.
+     */
+    public void changeBalance(Long accountId, Double delta) {
+        accountRepository.addToBalance(accountId, delta);
+        Cache cache = entityManagerFactory.getCache();
+        cache.evict(Account.class, accountId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(
+                    new TransactionSynchronization() {
+                        @Override
+                        public void afterCompletion(int status) {
+                            cache.evict(Account.class, accountId);
+                        }
+                    });
+        }
+    }
+
     public List<Account> getTopAccounts() {
         return accountRepository.getTopAccounts(userService.getLoggedUser());
     }
@@ -4,11 +4,14 @@ import com.budget.project.exception.AppException;
 import com.budget.project.model.db.Budget;
 import com.budget.project.model.db.Category;
 import com.budget.project.model.db.SubCategory;
+import com.budget.project.model.db.User;
 import com.budget.project.model.dto.BudgetDto;
 import com.budget.project.model.dto.request.input.BudgetInput;
-import com.budget.project.service.projection.TransactionCategorySum;
+import com.budget.project.service.projection.CategoryBudgetSum;
 import com.budget.project.service.repository.BudgetRepository;
+import com.budget.project.utils.DateRange;
 import com.budget.project.utils.DateUtils;
+import io.micrometer.core.annotation.Timed;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import lombok.SneakyThrows;
@@ -19,10 +22,7 @@ import org.springframework.stereotype.Service;
 import java.time.LocalDateTime;
 import java.time.OffsetDateTime;
 import java.time.YearMonth;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Objects;
-import java.util.UUID;
+import java.util.*;
 
 @Service
 @RequiredArgsConstructor
@@ -32,7 +32,6 @@ public class BudgetService {
     private final BudgetRepository budgetRepository;
     private final CategoryService categoryService;
     private final UserService userService;
-    private final TransactionService transactionService;
     @SneakyThrows
     public Budget createBudget(BudgetInput budgetInput) {
         Category category = categoryService.getCategory(budgetInput.categoryHash());
@@ -56,11 +55,10 @@ public class BudgetService {
                     });
         }
 
-        LocalDateTime date = DateUtils.parse(budgetInput.date());
-        if (date.getDayOfMonth()
-                < userService.getLoggedUser().getSettings().getFirstDayOfTheMonth()) {
-            date = date.minusMonths(1);
-        }
+        YearMonth yearMonth = DateRange.month(
+                        DateUtils.parse(budgetInput.date()).toLocalDate(),
+                        userService.getLoggedUser().getSettings().getFirstDayOfTheMonth())
+                .yearMonth();
 
         Budget budget = budgetRepository.save(Budget.builder()
                 .user(userService.getLoggedUser())
@@ -68,12 +66,13 @@ public class BudgetService {
                 .plannedBudget(budgetInput.plannedBudget())
                 .hash(UUID.randomUUID().toString())
                 .subCategory(subCategory)
-                .date(YearMonth.of(date.getYear(), date.getMonth()))
+                .date(yearMonth)
                 .build());
         userService.getLoggedUser().getBudgets().add(budget);
         return budget;
     }
 
+    @Timed("service.method")
     public List<BudgetDto> getBudgetDtoList(String date) {
         LocalDateTime dateTime = DateUtils.parse(date);
         YearMonth yearMonth = YearMonth.of(dateTime.getYear(), dateTime.getMonth());
@@ -82,27 +81,62 @@ public class BudgetService {
 
 
 
+    /**
+     * Budgets of the month for every category that has transactions in it and for every active
+     * expense category. Categories, budgets and sums come from one query and are merged by
+     * category id, the sub categories of the categories from a second one.
+     */
+    @Timed("service.method")
     public List<BudgetDto> getBudgetDtoList(YearMonth yearMonth) {
-        Integer firstDayOfTheMonth =
-                userService.getLoggedUser().getSettings().getFirstDayOfTheMonth();
-        LocalDateTime startDate = yearMonth.atDay(firstDayOfTheMonth).atStartOfDay();
-        LocalDateTime endDate = yearMonth.atDay(firstDayOfTheMonth).atStartOfDay().plusMonths(1).minusSeconds(1);
+        User user = userService.getLoggedUser();
+        DateRange month = DateRange.month(yearMonth, user.getSettings().getFirstDayOfTheMonth());
         //TODO test first day of the month
-        List<TransactionCategorySum> transactionCategoryNameSums =
-                transactionService.sumTransactionAmountForCategories(startDate, endDate);
-        transactionCategoryNameSums = normalizeTransactionCategorySum(transactionCategoryNameSums);
-        List<Budget> budgets = budgetRepository.findAllByDateAndUser(yearMonth, userService.getLoggedUser());
+        Map<Long, Category> categories = new LinkedHashMap<>();
+        Map<Long, Budget> budgets = new HashMap<>();
+        Map<Long, Double> sums = new HashMap<>();
+        for (CategoryBudgetSum row : budgetRepository.findCategoriesWithBudgetAndSum(
+                user, yearMonth, month.start(), month.end())) {
+            Long categoryId = row.getCategory().getId();
+            categories.putIfAbsent(categoryId, row.getCategory());
+            if (Objects.nonNull(row.getBudget())) {
+                budgets.putIfAbsent(categoryId, row.getBudget());
+            }
+            if (Objects.nonNull(row.getSumForCategory())) {
+                sums.put(categoryId, row.getSumForCategory());
+            }
+        }
+        categoryService.loadSubCategories(categories.values());
+        return getBudgetDtoList(categories.values(), budgets, sums);
+    }
+
+    // the dashboard passes the sums and the categories it has already read
+    public List<BudgetDto> getBudgetDtoList(
+            YearMonth yearMonth, Collection<Category> categories, Map<Long, Double> sums) {
+        Map<Long, Budget> budgets = new HashMap<>();
+        for (Budget budget :
+                budgetRepository.findAllByDateAndUser(yearMonth, userService.getLoggedUser())) {
+            budgets.putIfAbsent(budget.getCategory().getId(), budget);
+        }
+        return getBudgetDtoList(categories, budgets, sums);
+    }
+
+    private List<BudgetDto> getBudgetDtoList(
+            Collection<Category> categories, Map<Long, Budget> budgets, Map<Long, Double> sums) {
         List<BudgetDto> budgetDtoList = new ArrayList<>();
-        for (TransactionCategorySum transactionCategoryNameSum : transactionCategoryNameSums) {
-            Category category = transactionCategoryNameSum.getCategory();
-            Budget budget = getBudgetFromListForCategory(budgets, category);
-            if(Objects.isNull(budget)) {
+        for (Category category : categories) {
+            Double sum = sums.get(category.getId());
+            if (Objects.isNull(sum) && (category.getIncome() || category.getArchived())) {
+                continue;
+            }
+            Budget budget = budgets.get(category.getId());
+            if (Objects.isNull(budget)) {
                 budget = Budget.builder().plannedBudget(0.0).category(category).build();
-
             }
-            budgetDtoList.add(getBudgetDto(budget, transactionCategoryNameSum.getSumForCategory()));
+            budgetDtoList.add(getBudgetDto(budget, Objects.isNull(sum) ? 0.0 : sum));
         }
-        return budgetDtoList.stream().sorted((b1,b2) -> b1.budget().getPlannedBudget() < b2.budget().getPlannedBudget() ? 1 : -1).toList();
+        budgetDtoList.sort(Comparator.comparing(
+                (BudgetDto budgetDto) -> budgetDto.budget().getPlannedBudget()).reversed());
+        return budgetDtoList;
     }
 
     private BudgetDto getBudgetDto(Budget budget, Double sumForCategory) {
@@ -115,34 +149,6 @@ public class BudgetService {
         return new BudgetDto(budget, percent, left);
     }
 
-    private List<TransactionCategorySum> normalizeTransactionCategorySum(List<TransactionCategorySum> transactionCategorySums){
-        List<Category> categories = categoryService.getCategories(null);
-        categories = categories.stream().filter(c -> !c.getIncome() && !c.getArchived()).toList();
-        for(Category category: categories) {
-            if(transactionCategorySums.stream().noneMatch(t -> t.getCategory().equals(category))){
-                transactionCategorySums.add(new TransactionCategorySum() {
-                    @Override
-                    public Category getCategory() {
-                        return category;
-                    }
-
-                    @Override
-                    public Double getSumForCategory() {
-                        return 0.0;
-                    }
-                });
-            }
-        }
-        return transactionCategorySums;
-    }
-
-    private Budget getBudgetFromListForCategory(List<Budget> budgets, Category category) {
-        return budgets.stream()
-                .filter(b -> b.getCategory().equals(category))
-                .findFirst()
-                .orElse(null);
-    }
-
     public Budget getBudget(String hash) {
         return budgetRepository
                 .findByHashAndUser(hash, userService.getLoggedUser())
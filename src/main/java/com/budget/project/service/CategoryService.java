@@ -6,12 +6,15 @@ import com.budget.project.filter.service.FilterService;
 import com.budget.project.model.db.Category;
 import com.budget.project.model.db.SubCategory;
 import com.budget.project.model.db.Transaction;
+import com.budget.project.model.db.User;
 import com.budget.project.model.dto.CustomPage;
 import com.budget.project.model.dto.request.input.CategoryInput;
 import com.budget.project.model.dto.request.input.CategoryUpdateInput;
 import com.budget.project.model.dto.request.input.SubCategoryInput;
 import com.budget.project.service.repository.CategoryRepository;
+import com.budget.project.service.repository.NaturalIdRepository;
 import com.budget.project.service.repository.SubCategoryRepository;
+import com.budget.project.utils.BatchUtils;
 
 import jakarta.transaction.Transactional;
 
@@ -20,11 +23,11 @@ import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
 
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 
 import java.util.*;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -37,11 +40,16 @@ public class CategoryService {
     private final FilterService filterService;
     private final TransactionService transactionService;
     private final SubCategoryRepository subCategoryRepository;
+    private final DailyTotalService dailyTotalService;
+    private final NaturalIdRepository naturalIdRepository;
 
+    // both the category and the categories of the user are read from the second-level cache
     @SneakyThrows
     public Category getCategory(String hash) {
-        return categoryRepository
-                .findCategoryByHashAndUsersContainingIgnoreCase(hash, userService.getLoggedUser())
+        User user = userService.getLoggedUser();
+        return naturalIdRepository
+                .findByHash(Category.class, hash)
+                .filter(category -> user.getCategories().contains(category))
                 .orElseThrow(() -> {
                     log.debug("can't find category with hash: {}", hash);
                     return new AppException(
@@ -79,11 +87,11 @@ public class CategoryService {
     public Page<Category> getCategoriesPage(CustomPage page, Filter filter) {
         if (Objects.isNull(filter) || Objects.isNull(filter.logicOperator())) {
             return categoryRepository.findAllByUsersContaining(
-                    PageRequest.of(page.number(), page.size()), userService.getLoggedUser());
+                    page.toPageRequest(), userService.getLoggedUser());
         }
         return categoryRepository.findAll(
                 filterService.getSpecification(filter, Category.class),
-                PageRequest.of(page.number(), page.size()));
+                page.toPageRequest());
     }
 
     public List<Category> getCategories(Filter filter) {
@@ -93,6 +101,36 @@ public class CategoryService {
         return categoryRepository.findAll(filterService.getSpecification(filter, Category.class));
     }
 
+    // the sub categories of all the categories are read with one query instead of one each
+    public void loadSubCategories(Collection<Category> categories) {
+        if (!categories.isEmpty()) {
+            categoryRepository.findAllWithSubCategories(categories);
+        }
+    }
+
+    // the relations below resolve a whole GraphQL response, each with one query
+    public Map<Category, Set<SubCategory>> getSubCategories(Collection<Category> categories) {
+        Map<Category, Set<SubCategory>> subCategories = new HashMap<>();
+        if (!categories.isEmpty()) {
+            for (Category category : categoryRepository.findAllWithSubCategories(categories)) {
+                subCategories.put(category, category.getSubCategories());
+            }
+        }
+        return subCategories;
+    }
+
+    public <T> Map<T, Category> getRelatedCategories(
+            Collection<T> owners, Function<T, Category> relation) {
+        return BatchUtils.resolve(
+                owners, relation, Category::getId, categoryRepository::findAllById);
+    }
+
+    public <T> Map<T, SubCategory> getRelatedSubCategories(
+            Collection<T> owners, Function<T, SubCategory> relation) {
+        return BatchUtils.resolve(
+                owners, relation, SubCategory::getId, subCategoryRepository::findAllWithParent);
+    }
+
     public void deleteCategory(String hash) {
         Category category = this.getCategory(hash);
 
@@ -114,7 +152,11 @@ public class CategoryService {
         subCategory.getParent().getTransactions().stream()
                 .filter(t -> Objects.nonNull(t.getSubCategory())
                         && t.getSubCategory().equals(subCategory))
-                .forEach(transaction -> transaction.setSubCategory(null));
+                .forEach(transaction -> {
+                    dailyTotalService.subtract(transaction);
+                    transaction.setSubCategory(null);
+                    dailyTotalService.add(transaction);
+                });
 
         subCategory.getParent().getSubCategories().remove(subCategory);
         subCategoryRepository.delete(subCategory);
@@ -148,8 +190,10 @@ public class CategoryService {
     }
 
     public SubCategory getSubCategory(String hash) {
-        return subCategoryRepository
-                .findByHashAndUser(hash, userService.getLoggedUser())
+        User user = userService.getLoggedUser();
+        return naturalIdRepository
+                .findByHash(SubCategory.class, hash)
+                .filter(subCategory -> user.getCategories().contains(subCategory.getParent()))
                 .orElseThrow(() -> {
                     log.debug("can't find subCategory with hash: {}", hash);
                     return new AppException(
@@ -0,0 +1,53 @@
+package com.budget.project.service;
+
+import static com.budget.project.utils.CSVUtils.*;
+
+import com.budget.project.model.db.TransactionType;
+import com.budget.project.model.dto.ImportRecord;
+import com.budget.project.utils.DateUtils;
+
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVRecord;
+import org.springframework.stereotype.Service;
+
+import java.time.format.DateTimeFormatter;
+
+/** The native export format, one column per field of {@link ImportRecord}. */
+@Service
+public class CsvImportFormat implements ImportFormat {
+    public static final String NAME = "csv";
+
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+    private static final CSVFormat CSV_FORMAT = CSVFormat.DEFAULT
+            .withHeader(
+                    DATE_HEADER,
+                    TYPE_HEADER,
+                    FROM_ACCOUNT_CATEGORY_HEADER,
+                    TO_ACCOUNT_CATEGORY_HEADER,
+                    AMOUNT_HEADER,
+                    NOTE_HEADER,
+                    NEED_HEADER)
+            .withSkipHeaderRecord();
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public CSVFormat getCsvFormat() {
+        return CSV_FORMAT;
+    }
+
+    @Override
+    public ImportRecord toImportRecord(CSVRecord record) {
+        return new ImportRecord(
+                DateUtils.parse(record.get(DATE_HEADER), DATE_FORMATTER),
+                TransactionType.valueOf(record.get(TYPE_HEADER)),
+                record.get(FROM_ACCOUNT_CATEGORY_HEADER),
+                record.get(TO_ACCOUNT_CATEGORY_HEADER),
+                Double.valueOf(record.get(AMOUNT_HEADER)),
+                record.get(NOTE_HEADER),
+                record.get(NEED_HEADER).equals("true"));
+    }
+}
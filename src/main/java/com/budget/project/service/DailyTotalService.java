@@ -0,0 +1,133 @@
+package com.budget.project.service;
+
+import com.budget.project.model.db.DailyTotalKey;
+import com.budget.project.model.db.Transaction;
+import com.budget.project.model.db.TransactionType;
+import com.budget.project.service.projection.DailyCategoryTotal;
+import com.budget.project.service.projection.DayExpense;
+import com.budget.project.service.projection.MonthExpense;
+import com.budget.project.service.projection.TransactionCategoryNameSum;
+import com.budget.project.service.repository.DailyTotalRepository;
+import com.budget.project.utils.DateRange;
+
+import lombok.RequiredArgsConstructor;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Keeps the daily totals in step with the transactions and answers the statistics from them.
+ * Every change of a transaction has to subtract its old state and add the new one within the
+ * same database transaction. A row whose amount gets back to 0 is deleted, so only days and
+ * categories with transactions have one.
+ */
+@Service
+@Transactional
+@RequiredArgsConstructor
+public class DailyTotalService {
+    private final DailyTotalRepository dailyTotalRepository;
+    private final UserService userService;
+
+    public void add(Transaction transaction) {
+        getKey(transaction).ifPresent(key -> change(key, amount(transaction)));
+    }
+
+    public void subtract(Transaction transaction) {
+        getKey(transaction).ifPresent(key -> change(key, amount(transaction).negate()));
+    }
+
+    // used by imports, transactions of the same day and category need a single upsert
+    public void addAll(Collection<Transaction> transactions) {
+        Map<DailyTotalKey, BigDecimal> amounts = new LinkedHashMap<>();
+        for (Transaction transaction : transactions) {
+            getKey(transaction)
+                    .ifPresent(key -> amounts.merge(key, amount(transaction), BigDecimal::add));
+        }
+        amounts.forEach(this::change);
+    }
+
+    public List<TransactionCategoryNameSum> sumAmountForCategoriesName(
+            Boolean income, LocalDate startDate, LocalDate endDate) {
+        return dailyTotalRepository.sumAmountForCategoriesName(
+                userService.getLoggedUser().getId(), income, startDate, endDate);
+    }
+
+    public Optional<Double> getIncome(LocalDate startDate, LocalDate endDate) {
+        return dailyTotalRepository.sumAmount(
+                userService.getLoggedUser().getId(), TransactionType.INCOME, startDate, endDate);
+    }
+
+    public Optional<Double> getExpense(LocalDate startDate, LocalDate endDate) {
+        return dailyTotalRepository.sumAmount(
+                userService.getLoggedUser().getId(), TransactionType.EXPENSE, startDate, endDate);
+    }
+
+    public List<DayExpense> getExpensesPerDay(LocalDate startDate, LocalDate endDate) {
+        return dailyTotalRepository.getExpensesPerDay(
+                userService.getLoggedUser().getId(), startDate, endDate);
+    }
+
+    public List<MonthExpense> getExpensesPerMonth(LocalDate startDate, LocalDate endDate) {
+        return dailyTotalRepository.getExpensesPerMonth(
+                userService.getLoggedUser().getId(), startDate, endDate);
+    }
+
+    // sub categories are added up, every other statistic can be derived from these rows
+    public List<DailyCategoryTotal> getTotals(DateRange range) {
+        return dailyTotalRepository.sumAmountPerDayAndCategory(
+                userService.getLoggedUser().getId(), range.start(), range.end());
+    }
+
+    private void change(DailyTotalKey key, BigDecimal amount) {
+        dailyTotalRepository.insertIfMissing(
+                key.getUserId(),
+                key.getDate(),
+                key.getCategoryId(),
+                key.getSubCategoryId(),
+                key.getTransactionType().name());
+        dailyTotalRepository.addAmount(
+                key.getUserId(),
+                key.getDate(),
+                key.getCategoryId(),
+                key.getSubCategoryId(),
+                key.getTransactionType().name(),
+                amount);
+        dailyTotalRepository.deleteIfEmpty(
+                key.getUserId(),
+                key.getDate(),
+                key.getCategoryId(),
+                key.getSubCategoryId(),
+                key.getTransactionType().name());
+    }
+
+    // rounded the way the column stores it, so subtracting a transaction undoes adding it exactly
+    private BigDecimal amount(Transaction transaction) {
+        return BigDecimal.valueOf(transaction.getAmount()).setScale(2, RoundingMode.HALF_UP);
+    }
+
+    // transfers have no category and are not part of the statistics
+    private Optional<DailyTotalKey> getKey(Transaction transaction) {
+        if (transaction.getTransactionType() == TransactionType.TRANSFER
+                || Objects.isNull(transaction.getCategory())) {
+            return Optional.empty();
+        }
+        return Optional.of(new DailyTotalKey(
+                transaction.getOwner().getId(),
+                transaction.getDate().toLocalDate(),
+                transaction.getCategory().getId(),
+                Objects.isNull(transaction.getSubCategory())
+                        ? DailyTotalKey.NO_SUB_CATEGORY
+                        : transaction.getSubCategory().getId(),
+                transaction.getTransactionType()));
+    }
+}
@@ -0,0 +1,21 @@
+package com.budget.project.service;
+
+import com.budget.project.model.dto.ImportRecord;
+
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVRecord;
+
+/**
+ * A file format that can be imported. Implementations are Spring beans picked up by {@link
+ * ImportFormatRegistry}; they describe the CSV dialect of the file and convert one record into an
+ * {@link ImportRecord}. Splitting, parallel parsing and persistence are done by {@link
+ * ImportService}, so {@link #toImportRecord} must be thread-safe.
+ */
+public interface ImportFormat {
+    /** Name of the format in upload URLs and on import jobs. */
+    String getName();
+
+    CSVFormat getCsvFormat();
+
+    ImportRecord toImportRecord(CSVRecord record);
+}
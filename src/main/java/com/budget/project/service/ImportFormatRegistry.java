@@ -0,0 +1,32 @@
+package com.budget.project.service;
+
+import com.budget.project.exception.AppException;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Service
+public class ImportFormatRegistry {
+    private final Map<String, ImportFormat> formats;
+
+    public ImportFormatRegistry(List<ImportFormat> formats) {
+        this.formats = formats.stream()
+                .collect(Collectors.toUnmodifiableMap(ImportFormat::getName, Function.identity()));
+    }
+
+    public ImportFormat getFormat(String name) {
+        return Optional.ofNullable(formats.get(name)).orElseThrow(() -> {
+            log.debug("import format: {} not found", name);
+            return new AppException("unknown import format", HttpStatus.BAD_REQUEST);
+        });
+    }
+}
@@ -0,0 +1,164 @@
+package com.budget.project.service;
+
+import com.budget.project.exception.AppException;
+import com.budget.project.metrics.JdbcStatementMetrics;
+import com.budget.project.model.db.ImportJob;
+import com.budget.project.model.db.ImportJobStatus;
+import com.budget.project.service.repository.ImportJobRepository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Runs uploaded files as background import jobs. The upload is copied to a temporary file, the
+ * job is stored and the import runs on {@code importTaskExecutor} with one transaction per chunk.
+ * The counters of the job are written in the same transaction as the rows of each chunk.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ImportJobService {
+    private static final int ERROR_LENGTH = 255;
+    static final String IMPORT_FAILED = "import failed";
+
+    private final ImportService importService;
+    private final ImportFormatRegistry importFormatRegistry;
+    private final UserService userService;
+    private final ImportJobRepository importJobRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final TaskExecutor importTaskExecutor;
+    private final JdbcStatementMetrics jdbcStatementMetrics;
+
+    public ImportJob submit(MultipartFile file, String format) {
+        importFormatRegistry.getFormat(format);
+        Path path = copyToTempFile(file);
+        ImportJob job = importJobRepository.save(ImportJob.builder()
+                .hash(UUID.randomUUID().toString())
+                .format(format)
+                .fileName(file.getOriginalFilename())
+                .status(ImportJobStatus.PENDING)
+                .rowsProcessed(0L)
+                .rowsFailed(0L)
+                .createdAt(LocalDateTime.now())
+                .user(userService.getLoggedUser())
+                .build());
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        importTaskExecutor.execute(() -> run(job, path, authentication));
+        return job;
+    }
+
+    public ImportJob getImportJob(String hash) {
+        return importJobRepository
+                .findByHashAndUser(hash, userService.getLoggedUser())
+                .orElseThrow(() -> {
+                    log.debug("import job with hash: {} not found", hash);
+                    return new AppException("import job not found", HttpStatus.NOT_FOUND);
+                });
+    }
+
+    public List<ImportJob> getImportJobs() {
+        return importJobRepository.findAllByUserOrderByCreatedAtDesc(userService.getLoggedUser());
+    }
+
+    private void run(ImportJob job, Path path, Authentication authentication) {
+        SecurityContextHolder.getContext().setAuthentication(authentication);
+        JobProgress progress = new JobProgress(job.getId());
+        try (JdbcStatementMetrics.Scope scope = jdbcStatementMetrics.start("importJob");
+                InputStream inputStream = Files.newInputStream(path)) {
+            transactionTemplate.executeWithoutResult(status -> importJobRepository.markStarted(
+                    job.getId(), ImportJobStatus.RUNNING, LocalDateTime.now()));
+            importService.importFile(
+                    inputStream, importFormatRegistry.getFormat(job.getFormat()), progress);
+            progress.finish(ImportJobStatus.COMPLETED, null);
+            log.debug("import job {} completed", job.getHash());
+        } catch (Exception ex) {
+            log.warn("import job {} failed", job.getHash(), ex);
+            // the job is shown to its user, only messages of AppException are meant for them
+            progress.finish(
+                    ImportJobStatus.FAILED,
+                    ex instanceof AppException ? ex.getMessage() : IMPORT_FAILED);
+        } finally {
+            SecurityContextHolder.clearContext();
+            deleteTempFile(path);
+        }
+    }
+
+    private Path copyToTempFile(MultipartFile file) {
+        try {
+            Path path = Files.createTempFile("import-", ".csv");
+            file.transferTo(path);
+            return path;
+        } catch (IOException e) {
+            log.warn("problem with storing uploaded file: {}", e.getMessage());
+            throw new AppException("upload issue", HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    private void deleteTempFile(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("problem with deleting {}: {}", path, e.getMessage());
+        }
+    }
+
+    private class JobProgress implements ImportProgress {
+        private final Long jobId;
+        private long rowsProcessed;
+        private long rowsFailed;
+
+        private JobProgress(Long jobId) {
+            this.jobId = jobId;
+        }
+
+        @Override
+        public void runChunk(Runnable chunk) {
+            long processed = rowsProcessed;
+            try {
+                transactionTemplate.executeWithoutResult(status -> chunk.run());
+            } catch (RuntimeException ex) {
+                // the rows of a rolled back chunk were not imported
+                rowsProcessed = processed;
+                throw ex;
+            }
+        }
+
+        @Override
+        public void chunkImported(int rows) {
+            rowsProcessed += rows;
+            importJobRepository.updateProgress(jobId, rowsProcessed, rowsFailed);
+        }
+
+        @Override
+        public void rowFailed(long row, RuntimeException ex) {
+            log.debug("import job row {} skipped: {}", row, ex.getMessage());
+            rowsFailed++;
+        }
+
+        private void finish(ImportJobStatus status, String error) {
+            if (Objects.nonNull(error) && error.length() > ERROR_LENGTH) {
+                error = error.substring(0, ERROR_LENGTH);
+            }
+            String message = error;
+            transactionTemplate.executeWithoutResult(tx -> importJobRepository.markFinished(
+                    jobId, status, rowsProcessed, rowsFailed, message, LocalDateTime.now()));
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.budget.project.service;
+
+/**
+ * Hooks of a running import. The defaults run every chunk in the caller's transaction and fail
+ * the whole import on the first bad row.
+ */
+public interface ImportProgress {
+    ImportProgress NONE = new ImportProgress() {};
+
+    /** Runs one chunk of the import, implementations may give it its own transaction. */
+    default void runChunk(Runnable chunk) {
+        chunk.run();
+    }
+
+    /** Called inside {@link #runChunk} after the rows of the chunk were written. */
+    default void chunkImported(int rows) {}
+
+    /** Called for a row that could not be read, throwing from here aborts the import. */
+    default void rowFailed(long row, RuntimeException ex) {
+        throw ex;
+    }
+}
@@ -1,151 +1,267 @@
 package com.budget.project.service;
 
-import static com.budget.project.utils.CSVUtils.*;
-
 import com.budget.project.model.db.*;
+import com.budget.project.model.dto.ImportRecord;
 import com.budget.project.model.dto.request.input.AccountInput;
 import com.budget.project.model.dto.request.input.CategoryInput;
-import com.budget.project.model.dto.request.input.TransactionInput;
-import com.budget.project.utils.DateUtils;
+import com.budget.project.service.repository.AccountRepository;
+import com.budget.project.service.repository.CategoryRepository;
+import com.budget.project.service.repository.TransactionRepository;
+
+import io.micrometer.core.annotation.Timed;
 
+import jakarta.persistence.EntityManager;
 import jakarta.transaction.Transactional;
 
 import lombok.RequiredArgsConstructor;
 import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
 
-import org.apache.commons.csv.CSVFormat;
-import org.apache.commons.csv.CSVRecord;
+import org.hibernate.Hibernate;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.io.Reader;
 import java.time.LocalDateTime;
-import java.time.OffsetDateTime;
-import java.time.ZoneOffset;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 @Transactional
 public class ImportService {
+    private static final int CHUNK_SIZE = 500;
 
     private final AccountService accountService;
-    private final TransactionService transactionService;
     private final CategoryService categoryService;
+    private final CsvImportFormat csvImportFormat;
     private final OneMoneyService oneMoneyService;
+    private final UserService userService;
+    private final DailyTotalService dailyTotalService;
+    private final AccountRepository accountRepository;
+    private final CategoryRepository categoryRepository;
+    private final TransactionRepository transactionRepository;
+    private final EntityManager entityManager;
 
+    @Timed("service.method")
     @SneakyThrows
     public void importCSV(MultipartFile file) {
-        importCSV(file.getInputStream());
+        importFile(file.getInputStream(), csvImportFormat, ImportProgress.NONE);
     }
 
+    @Timed("service.method")
     @SneakyThrows
-    private void importCSV(InputStream inputStream) {
-        Reader reader = new InputStreamReader(inputStream);
-        Iterable<CSVRecord> records = CSVFormat.DEFAULT
-                .withHeader(
-                        DATE_HEADER,
-                        TYPE_HEADER,
-                        FROM_ACCOUNT_CATEGORY_HEADER,
-                        TO_ACCOUNT_CATEGORY_HEADER,
-                        AMOUNT_HEADER,
-                        NOTE_HEADER,
-                        NEED_HEADER)
-                .withSkipHeaderRecord()
-                .parse(reader);
-        for (CSVRecord record : records) {
-            createTransaction(record);
+    public void importFromOneMoney(MultipartFile file) {
+        importFile(file.getInputStream(), oneMoneyService, ImportProgress.NONE);
+    }
+
+    /**
+     * Imports a file of the given format. The file is parsed in parallel blocks while this thread
+     * writes the records. Without a surrounding transaction every chunk is committed on its own by
+     * {@link ImportProgress#runChunk}.
+     */
+    @Timed("service.method")
+    @SneakyThrows
+    @Transactional(Transactional.TxType.SUPPORTS)
+    public void importFile(InputStream inputStream, ImportFormat format, ImportProgress progress) {
+        try (RecordBlockReader records = new RecordBlockReader(inputStream, format, progress)) {
+            importRecords(records, progress);
         }
     }
 
-    private void createTransaction(CSVRecord record) {
-        LocalDateTime localDateTime = DateUtils.parse(record.get(DATE_HEADER), "dd/MM/yyyy");
-        TransactionType transactionType = TransactionType.valueOf(record.get(TYPE_HEADER));
-        TransactionInput.TransactionInputBuilder transactionInputBuilder =
-                TransactionInput.builder()
-                        .date(OffsetDateTime.of(localDateTime, ZoneOffset.UTC).toString())
-                        .name("")
-                        .need(record.get(NEED_HEADER).equals("true"))
-                        .currency(Currency.PLN)
-                        .amount(Double.valueOf(record.get(AMOUNT_HEADER)))
-                        .note(record.get(NOTE_HEADER))
-                        .transactionType(transactionType);
-
-        switch (transactionType) {
-            case EXPENSE -> transactionInputBuilder =
-                    handleExpense(transactionInputBuilder, record);
-            case INCOME -> transactionInputBuilder = handleIncome(transactionInputBuilder, record);
-            case TRANSFER -> transactionInputBuilder =
-                    handleTransfer(transactionInputBuilder, record);
+    /**
+     * Imports the records in chunks. For every chunk the account and category names that were not
+     * seen yet are resolved with one query each, the transactions are built in memory and written
+     * in JDBC batches together with one balance change per account and one daily total change per
+     * day and category, so a committed chunk always leaves the balances and totals consistent.
+     */
+    private void importRecords(Iterator<ImportRecord> iterator, ImportProgress progress) {
+        ImportContext context = new ImportContext(userService.getLoggedUser());
+        List<ImportRecord> chunk = new ArrayList<>(CHUNK_SIZE);
+        while (iterator.hasNext()) {
+            chunk.add(iterator.next());
+            if (chunk.size() == CHUNK_SIZE || !iterator.hasNext()) {
+                progress.runChunk(() -> {
+                    importChunk(chunk, context);
+                    progress.chunkImported(chunk.size());
+                });
+                chunk.clear();
+            }
         }
+        log.debug("imported {} transactions", context.imported);
+    }
 
-        transactionService.createTransaction(transactionInputBuilder.build());
+    private void importChunk(List<ImportRecord> chunk, ImportContext context) {
+        resolveAccounts(chunk, context);
+        resolveCategories(chunk, context);
+        List<Transaction> transactions = new ArrayList<>(chunk.size());
+        for (ImportRecord record : chunk) {
+            transactions.add(toTransaction(record, context));
+        }
+        transactionRepository.saveAll(transactions);
+        transactionRepository.flush();
+        dailyTotalService.addAll(transactions);
+        context.balanceDeltas.forEach(accountService::changeBalance);
+        context.balanceDeltas.clear();
+        context.imported += transactions.size();
     }
 
-    private TransactionInput.TransactionInputBuilder handleTransfer(
-            TransactionInput.TransactionInputBuilder builder, CSVRecord record) {
-        Account accountFrom = getAccount(record.get(FROM_ACCOUNT_CATEGORY_HEADER));
-        Account accountTo = getAccount(record.get(TO_ACCOUNT_CATEGORY_HEADER));
-        return builder.accountFromHash(accountFrom.getHash()).accountToHash(accountTo.getHash());
+    private Transaction toTransaction(ImportRecord record, ImportContext context) {
+        Transaction transaction = Transaction.builder()
+                .name("")
+                .note(record.note())
+                .amount(record.amount())
+                .date(record.date())
+                .need(record.need())
+                .hash(UUID.randomUUID().toString())
+                .currency(Currency.PLN)
+                .transactionType(record.type())
+                .future(record.date().isAfter(LocalDateTime.now()))
+                .owner(context.user)
+                .build();
+        switch (record.type()) {
+            case EXPENSE -> {
+                transaction.setAccountFrom(context.accounts.get(record.from()));
+                transaction.setCategory(
+                        context.categories.get(new CategoryKey(record.to(), false)));
+            }
+            case INCOME -> {
+                transaction.setAccountTo(context.accounts.get(record.to()));
+                transaction.setCategory(
+                        context.categories.get(new CategoryKey(record.from(), true)));
+            }
+            case TRANSFER -> {
+                transaction.setAccountFrom(context.accounts.get(record.from()));
+                transaction.setAccountTo(context.accounts.get(record.to()));
+            }
+        }
+
+        Account accountFrom = transaction.getAccountFrom();
+        Account accountTo = transaction.getAccountTo();
+        if (Objects.nonNull(accountFrom)) {
+            addIfLoaded(accountFrom, accountFrom.getTransactions(), transaction);
+            if (!transaction.getFuture()) {
+                context.balanceDeltas.merge(accountFrom, -transaction.getAmount(), Double::sum);
+            }
+        }
+        if (Objects.nonNull(accountTo)) {
+            addIfLoaded(accountTo, accountTo.getTransactions(), transaction);
+            if (!transaction.getFuture()) {
+                context.balanceDeltas.merge(accountTo, transaction.getAmount(), Double::sum);
+            }
+        }
+        Category category = transaction.getCategory();
+        if (Objects.nonNull(category)) {
+            addIfLoaded(category, category.getTransactions(), transaction);
+        }
+        return transaction;
     }
 
-    private TransactionInput.TransactionInputBuilder handleIncome(
-            TransactionInput.TransactionInputBuilder builder, CSVRecord record) {
-        return handleIncomeOrExpense(
-                builder, record, TO_ACCOUNT_CATEGORY_HEADER, FROM_ACCOUNT_CATEGORY_HEADER, true);
+    // only collections already in memory are kept in sync, the rest are read from the database when
+    // needed, and the entities of a chunk that was committed on its own are detached
+    private void addIfLoaded(Object owner, Set<Transaction> transactions, Transaction transaction) {
+        if (entityManager.contains(owner) && Hibernate.isInitialized(transactions)) {
+            transactions.add(transaction);
+        }
     }
 
-    private TransactionInput.TransactionInputBuilder handleExpense(
-            TransactionInput.TransactionInputBuilder builder, CSVRecord record) {
-        return handleIncomeOrExpense(
-                builder, record, FROM_ACCOUNT_CATEGORY_HEADER, TO_ACCOUNT_CATEGORY_HEADER, false);
+    private void resolveAccounts(List<ImportRecord> chunk, ImportContext context) {
+        Set<String> missing = chunk.stream()
+                .flatMap(this::getAccountNames)
+                .filter(name -> !context.accounts.containsKey(name))
+                .collect(Collectors.toSet());
+        if (missing.isEmpty()) {
+            return;
+        }
+        accountRepository
+                .findAllByNameInAndUsersContaining(missing, context.user)
+                .forEach(account -> context.accounts.put(account.getName(), account));
+        for (String name : missing) {
+            if (!context.accounts.containsKey(name)) {
+                context.accounts.put(name, createAccount(name));
+            }
+        }
     }
 
-    private TransactionInput.TransactionInputBuilder handleIncomeOrExpense(
-            TransactionInput.TransactionInputBuilder builder,
-            CSVRecord record,
-            String accountHeader,
-            String categoryHeader,
-            boolean income) {
-        Account account = getAccount(record.get(accountHeader));
-
-        if (income) {
-            builder.accountToHash(account.getHash());
-        } else {
-            builder.accountFromHash(account.getHash());
+    private void resolveCategories(List<ImportRecord> chunk, ImportContext context) {
+        Set<CategoryKey> missing = chunk.stream()
+                .map(this::getCategoryKey)
+                .filter(key -> Objects.nonNull(key) && !context.categories.containsKey(key))
+                .collect(Collectors.toSet());
+        if (missing.isEmpty()) {
+            return;
         }
+        categoryRepository
+                .findAllByNameInAndUsersContaining(
+                        missing.stream().map(CategoryKey::name).collect(Collectors.toSet()),
+                        context.user)
+                .forEach(category -> context.categories.putIfAbsent(
+                        new CategoryKey(category.getName(), category.getIncome()), category));
+        for (CategoryKey key : missing) {
+            if (!context.categories.containsKey(key)) {
+                context.categories.put(key, createCategory(key));
+            }
+        }
+    }
+
+    private Stream<String> getAccountNames(ImportRecord record) {
+        return switch (record.type()) {
+            case EXPENSE -> Stream.of(record.from());
+            case INCOME -> Stream.of(record.to());
+            case TRANSFER -> Stream.of(record.from(), record.to());
+        };
+    }
 
-        Category category = categoryService
-                .getCategoryByNameAndIncome(record.get(categoryHeader), income)
-                .orElseGet(() -> categoryService.createCategory(CategoryInput.builder()
-                        .name(record.get(categoryHeader))
-                        .income(income)
-                        .subCategories(new ArrayList<>())
-                        .color("#CCFF1A")
-                        .build()));
+    private CategoryKey getCategoryKey(ImportRecord record) {
+        return switch (record.type()) {
+            case EXPENSE -> new CategoryKey(record.to(), false);
+            case INCOME -> new CategoryKey(record.from(), true);
+            case TRANSFER -> null;
+        };
+    }
 
-        return builder.categoryHash(category.getHash());
+    private Category createCategory(CategoryKey key) {
+        return categoryService.createCategory(CategoryInput.builder()
+                .name(key.name())
+                .income(key.income())
+                .subCategories(new ArrayList<>())
+                .color("#CCFF1A")
+                .build());
     }
 
-    private Account getAccount(String name) {
-        return accountService
-                .getAccountByName(name)
-                .orElseGet(() -> accountService.createAccount(AccountInput.builder()
-                        .accountType(AccountType.REGULAR)
-                        .balance(0D)
-                        .description("")
-                        .color("#CCFF1A")
-                        .archived(false)
-                        .currency(Currency.PLN)
-                        .name(name)
-                        .build()));
+    private Account createAccount(String name) {
+        return accountService.createAccount(AccountInput.builder()
+                .accountType(AccountType.REGULAR)
+                .balance(0D)
+                .description("")
+                .color("#CCFF1A")
+                .archived(false)
+                .currency(Currency.PLN)
+                .name(name)
+                .build());
     }
 
-    public void importFromOneMoney(MultipartFile file) {
-        importCSV(oneMoneyService.transformFile(file));
+    private record CategoryKey(String name, boolean income) {}
+
+    private static final class ImportContext {
+        private final User user;
+        private final Map<String, Account> accounts = new HashMap<>();
+        private final Map<CategoryKey, Category> categories = new HashMap<>();
+        private final Map<Account, Double> balanceDeltas = new LinkedHashMap<>();
+        private int imported;
+
+        private ImportContext(User user) {
+            this.user = user;
+        }
     }
 }
@@ -1,113 +1,85 @@
 package com.budget.project.service;
 
-import static com.budget.project.utils.CSVUtils.*;
-
 import com.budget.project.exception.AppException;
 import com.budget.project.model.db.TransactionType;
+import com.budget.project.model.dto.ImportRecord;
 
 import lombok.RequiredArgsConstructor;
-import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
 
 import org.apache.commons.csv.CSVFormat;
-import org.apache.commons.csv.CSVPrinter;
 import org.apache.commons.csv.CSVRecord;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
-import org.springframework.web.multipart.MultipartFile;
-
-import java.io.*;
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
-import java.util.List;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 
+/** Reads OneMoney exports, every record is converted straight into an {@link ImportRecord}. */
 @Service
 @Slf4j
 @RequiredArgsConstructor
-public class OneMoneyService {
+public class OneMoneyService implements ImportFormat {
+    public static final String NAME = "onemoney";
 
-    @SneakyThrows
-    public InputStream transformFile(MultipartFile file) {
-        StringWriter sw = new StringWriter();
-        CSVFormat csvFormat = CSVFormat.DEFAULT.withHeader(
-                DATE_HEADER,
-                TYPE_HEADER,
-                FROM_ACCOUNT_CATEGORY_HEADER,
-                TO_ACCOUNT_CATEGORY_HEADER,
-                AMOUNT_HEADER,
-                NOTE_HEADER,
-                NEED_HEADER);
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("MM/dd/yy");
+    private static final CSVFormat CSV_FORMAT = CSVFormat.DEFAULT
+            .withHeader(
+                    "DATE",
+                    "TYPE",
+                    "FROM ACCOUNT",
+                    "TO ACCOUNT / TO CATEGORY",
+                    "AMOUNT",
+                    "CURRENCY",
+                    "AMOUNT 2",
+                    "CURRENCY 2",
+                    "TAGS",
+                    "NOTES")
+            .withSkipHeaderRecord()
+            .withAllowMissingColumnNames(true);
 
-        Reader reader = new InputStreamReader(file.getInputStream());
-        Iterable<CSVRecord> records = CSVFormat.DEFAULT
-                .withHeader(
-                        "DATE",
-                        "TYPE",
-                        "FROM ACCOUNT",
-                        "TO ACCOUNT / TO CATEGORY",
-                        "AMOUNT",
-                        "CURRENCY",
-                        "AMOUNT 2",
-                        "CURRENCY 2",
-                        "TAGS",
-                        "NOTES")
-                .withSkipHeaderRecord()
-                .withAllowMissingColumnNames(true)
-                .parse(reader);
-        try (final CSVPrinter printer = new CSVPrinter(sw, csvFormat)) {
-            records.forEach((record) -> {
-                try {
-                    printer.printRecord(transformRecord(record));
-                } catch (IOException e) {
-                    log.warn("problem with printing to csv: {}", e.getMessage());
-                    throw new AppException("CSV issue", HttpStatus.INTERNAL_SERVER_ERROR);
-                }
-            });
-        }
-        return new ByteArrayInputStream(sw.toString().getBytes());
+    @Override
+    public String getName() {
+        return NAME;
     }
 
-    private List<String> transformRecord(CSVRecord record) {
-        return List.of(
+    @Override
+    public CSVFormat getCsvFormat() {
+        return CSV_FORMAT;
+    }
+
+    @Override
+    public ImportRecord toImportRecord(CSVRecord record) {
+        TransactionType type = TransactionType.valueOf(record.get("TYPE").toUpperCase());
+        return new ImportRecord(
                 transformDate(record.get("DATE")),
-                record.get("TYPE").toUpperCase(),
-                getFromAccountOrCategory(record),
-                getToAccountOrCategory(record),
-                record.get("AMOUNT"),
+                type,
+                getFromAccountOrCategory(record, type),
+                getToAccountOrCategory(record, type),
+                Double.valueOf(record.get("AMOUNT")),
                 record.get("NOTES"),
-                "true");
+                true);
     }
 
-    private String getToAccountOrCategory(CSVRecord record) {
-        switch (TransactionType.valueOf(record.get("TYPE").toUpperCase())) {
-            case INCOME -> {
-                return record.get("FROM ACCOUNT");
-            }
-            case EXPENSE, TRANSFER -> {
-                return transformCategory(record.get("TO ACCOUNT / TO CATEGORY"));
-            }
-            default -> throw new AppException("bad type", HttpStatus.BAD_REQUEST);
-        }
+    private String getToAccountOrCategory(CSVRecord record, TransactionType type) {
+        return switch (type) {
+            case INCOME -> record.get("FROM ACCOUNT");
+            case EXPENSE, TRANSFER -> transformCategory(record.get("TO ACCOUNT / TO CATEGORY"));
+        };
     }
 
-    private String getFromAccountOrCategory(CSVRecord record) {
-        switch (TransactionType.valueOf(record.get("TYPE").toUpperCase())) {
-            case INCOME -> {
-                return transformCategory(record.get("TO ACCOUNT / TO CATEGORY"));
-            }
-            case EXPENSE, TRANSFER -> {
-                return record.get("FROM ACCOUNT");
-            }
-            default -> throw new AppException("bad type", HttpStatus.BAD_REQUEST);
-        }
+    private String getFromAccountOrCategory(CSVRecord record, TransactionType type) {
+        return switch (type) {
+            case INCOME -> transformCategory(record.get("TO ACCOUNT / TO CATEGORY"));
+            case EXPENSE, TRANSFER -> record.get("FROM ACCOUNT");
+        };
     }
 
-    private String transformDate(String date) {
-        SimpleDateFormat fromOneMoney = new SimpleDateFormat("MM/dd/yy");
-        SimpleDateFormat myFormat = new SimpleDateFormat("dd/MM/yyyy");
+    private LocalDateTime transformDate(String date) {
         try {
-            return myFormat.format(fromOneMoney.parse(date));
-        } catch (ParseException e) {
+            return LocalDate.parse(date, DATE_FORMATTER).atStartOfDay();
+        } catch (DateTimeParseException e) {
             log.warn("problem with parsing date: {}", e.getMessage());
             throw new AppException("bad date format", HttpStatus.BAD_REQUEST);
         }
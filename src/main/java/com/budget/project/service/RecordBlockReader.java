@@ -0,0 +1,182 @@
+package com.budget.project.service;
+
+import com.budget.project.model.dto.ImportRecord;
+
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Splits a file into blocks of whole records and parses the blocks on the common fork-join pool.
+ * Records are handed out in file order to the single thread that writes them, at most {@link
+ * #MAX_PENDING} blocks are held in memory, and rows that could not be read are reported to the
+ * {@link ImportProgress} from that thread.
+ */
+class RecordBlockReader implements Iterator<ImportRecord>, Closeable {
+    static final int BLOCK_SIZE = 1000;
+    private static final int MAX_PENDING = Runtime.getRuntime().availableProcessors() * 2;
+
+    private final Reader reader;
+    private final ImportFormat format;
+    private final CSVFormat blockFormat;
+    private final char delimiter;
+    private final Character quote;
+    private final ImportProgress progress;
+    private final Deque<CompletableFuture<ParsedBlock>> pending = new ArrayDeque<>();
+    private Iterator<ImportRecord> current = Collections.emptyIterator();
+    private boolean skipHeader;
+    private boolean eof;
+    private long rowsRead;
+
+    RecordBlockReader(InputStream inputStream, ImportFormat format, ImportProgress progress) {
+        this.reader = new BufferedReader(new InputStreamReader(inputStream));
+        this.format = format;
+        this.blockFormat = format.getCsvFormat().withSkipHeaderRecord(false);
+        this.delimiter = format.getCsvFormat().getDelimiter();
+        this.quote = format.getCsvFormat().getQuoteCharacter();
+        this.skipHeader = format.getCsvFormat().getSkipHeaderRecord();
+        this.progress = progress;
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (!current.hasNext()) {
+            fill();
+            if (pending.isEmpty()) {
+                return false;
+            }
+            ParsedBlock block = join(pending.poll());
+            block.failures().forEach(failure -> progress.rowFailed(failure.row(), failure.ex()));
+            current = block.records().iterator();
+        }
+        return true;
+    }
+
+    @Override
+    public ImportRecord next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return current.next();
+    }
+
+    @Override
+    public void close() throws IOException {
+        pending.forEach(future -> future.cancel(true));
+        pending.clear();
+        reader.close();
+    }
+
+    private void fill() {
+        while (!eof && pending.size() < MAX_PENDING) {
+            long firstRow = rowsRead + 1;
+            String block = readBlock();
+            if (Objects.nonNull(block)) {
+                pending.add(CompletableFuture.supplyAsync(() -> parse(block, firstRow)));
+            }
+        }
+    }
+
+    // a record ends at a line break outside quotes, so a block never cuts a quoted value in half.
+    // Quotes are read the way CSVParser reads them: a quote opens a value only at the start of a
+    // field, and in a quoted value a quote is closing unless another one follows, "" is a quote.
+    private String readBlock() {
+        try {
+            StringBuilder block = new StringBuilder();
+            boolean fieldStart = true;
+            boolean quoted = false;
+            boolean closingQuote = false;
+            int records = 0;
+            while (records < BLOCK_SIZE) {
+                int c = reader.read();
+                if (c == -1) {
+                    eof = true;
+                    if (!block.isEmpty() && !skipHeader) {
+                        records++;
+                    }
+                    break;
+                }
+                block.append((char) c);
+                boolean isQuote = Objects.nonNull(quote) && c == quote;
+                if (closingQuote) {
+                    closingQuote = false;
+                    if (isQuote) {
+                        continue;
+                    }
+                    quoted = false;
+                }
+                if (quoted) {
+                    closingQuote = isQuote;
+                    continue;
+                }
+                boolean wasFieldStart = fieldStart;
+                fieldStart = c == delimiter || c == '\n';
+                if (isQuote && wasFieldStart) {
+                    quoted = true;
+                } else if (c == '\n') {
+                    if (skipHeader) {
+                        skipHeader = false;
+                        block.setLength(0);
+                    } else {
+                        records++;
+                    }
+                }
+            }
+            rowsRead += records;
+            return records > 0 ? block.toString() : null;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private ParsedBlock parse(String block, long firstRow) {
+        List<ImportRecord> records = new ArrayList<>(BLOCK_SIZE);
+        List<RowFailure> failures = new ArrayList<>();
+        try (CSVParser parser = blockFormat.parse(new StringReader(block))) {
+            for (CSVRecord record : parser) {
+                try {
+                    records.add(format.toImportRecord(record));
+                } catch (RuntimeException ex) {
+                    failures.add(new RowFailure(firstRow + record.getRecordNumber() - 1, ex));
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return new ParsedBlock(records, failures);
+    }
+
+    private ParsedBlock join(CompletableFuture<ParsedBlock> future) {
+        try {
+            return future.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+
+    private record ParsedBlock(List<ImportRecord> records, List<RowFailure> failures) {}
+
+    private record RowFailure(long row, RuntimeException ex) {}
+}
@@ -1,38 +1,49 @@
 package com.budget.project.service;
 
 import com.budget.project.model.db.Account;
-import com.budget.project.model.db.User;
+import com.budget.project.model.db.Category;
+import com.budget.project.model.db.TransactionType;
 import com.budget.project.model.dto.AccountDto;
 import com.budget.project.model.dto.CategoryAmount;
+import com.budget.project.model.dto.Dashboard;
 import com.budget.project.model.dto.IncomeExpense;
+import com.budget.project.service.projection.DailyCategoryTotal;
 import com.budget.project.service.projection.DayExpense;
 import com.budget.project.service.projection.MonthExpense;
 import com.budget.project.service.projection.TransactionCategoryNameSum;
+import com.budget.project.utils.DateRange;
 import com.budget.project.utils.DateUtils;
 
+import io.micrometer.core.annotation.Timed;
+
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.time.LocalDateTime;
+import java.time.LocalDate;
 import java.util.*;
+import java.util.stream.Collectors;
 
 @Service
 @Slf4j
 @Transactional
 @RequiredArgsConstructor
 public class StatisticsService {
-    private final TransactionService transactionService;
+    private final DailyTotalService dailyTotalService;
     private final UserService userService;
     private final AccountService accountService;
+    private final CategoryService categoryService;
+    private final BudgetService budgetService;
 
     public List<CategoryAmount> getAmountByCategory(
             String startDate, String endDate, Boolean income) {
         List<TransactionCategoryNameSum> transactions =
-                transactionService.sumTransactionAmountForCategoriesName(
-                        income, DateUtils.parse(startDate), DateUtils.parse(endDate));
+                dailyTotalService.sumAmountForCategoriesName(
+                        income,
+                        DateUtils.parse(startDate).toLocalDate(),
+                        DateUtils.parse(endDate).toLocalDate());
         return transactions.stream()
                 .map(t -> new CategoryAmount(
                         t.getCategoryName(), t.getSumForCategory(), t.getCategoryColor()))
@@ -40,39 +51,20 @@ public class StatisticsService {
     }
 
     public IncomeExpense getIncomeExpense(String date) {
-        User user = userService.getLoggedUser();
-        LocalDateTime localDateTime = DateUtils.parse(date);
-        LocalDateTime startDate = localDateTime.withHour(0).withSecond(0).withMinute(0);
-        LocalDateTime endDate = localDateTime.withHour(23).withMinute(59).withSecond(0);
-        int firstDay = user.getSettings().getFirstDayOfTheMonth();
-        if (localDateTime.getDayOfMonth() < firstDay) {
-            startDate = startDate.withDayOfMonth(firstDay).minusMonths(1);
-            endDate = endDate.withDayOfMonth(firstDay - 1);
-        } else {
-            startDate = startDate.withDayOfMonth(firstDay);
-            endDate = endDate.withDayOfMonth(firstDay - 1).plusMonths(1);
-        }
-        Double income = transactionService.getIncome(startDate, endDate).orElse(0D);
-        Double expense = transactionService.getExpense(startDate, endDate).orElse(0D);
+        DateRange month = getMonth(DateUtils.parse(date).toLocalDate());
+        Double income = dailyTotalService.getIncome(month.start(), month.end()).orElse(0D);
+        Double expense = dailyTotalService.getExpense(month.start(), month.end()).orElse(0D);
         return new IncomeExpense(income, expense);
     }
 
     public List<Double> getExpensesPerDayOfTheWeek(String date) {
-        LocalDateTime localDateTime = DateUtils.parse(date);
-        int dayOfWeek = localDateTime.getDayOfWeek().getValue();
-        LocalDateTime startDate =
-                localDateTime.minusDays(dayOfWeek - 1).withHour(0).withMinute(0).withSecond(0);
-        LocalDateTime endDate = localDateTime
-                .plusDays(7 - dayOfWeek)
-                .withHour(23)
-                .withMinute(59)
-                .withSecond(59);
+        DateRange week = DateRange.week(DateUtils.parse(date).toLocalDate());
         List<DayExpense> dayExpenses =
-                transactionService.getExpensesPerDayOfTheWeek(startDate, endDate);
+                dailyTotalService.getExpensesPerDay(week.start(), week.end());
         List<Double> expenses = new ArrayList<>(List.of(0D, 0D, 0D, 0D, 0D, 0D, 0D));
         for (DayExpense dayExpense : dayExpenses) {
             expenses.set(
-                    startDate.withDayOfMonth(dayExpense.getDay()).getDayOfWeek().getValue() - 1,
+                    week.start().withDayOfMonth(dayExpense.getDay()).getDayOfWeek().getValue() - 1,
                     dayExpense.getExpense());
         }
         return expenses;
@@ -88,16 +80,9 @@ public class StatisticsService {
     }
 
     public List<Double> getExpensesPerMonth(String date) {
-        LocalDateTime localDateTime = DateUtils.parse(date);
-        LocalDateTime startDate =
-                localDateTime.withDayOfYear(1).withHour(0).withMinute(0).withSecond(0);
-        LocalDateTime endDate = localDateTime
-                .withDayOfYear(LocalDateTime.MAX.getDayOfYear())
-                .withHour(23)
-                .withMinute(59)
-                .withSecond(59);
+        DateRange year = DateRange.year(DateUtils.parse(date).toLocalDate());
         List<MonthExpense> monthExpenses =
-                transactionService.getExpensesMonth(startDate, endDate);
+                dailyTotalService.getExpensesPerMonth(year.start(), year.end());
         List<Double> expenses = new ArrayList<>(List.of(0D, 0D, 0D, 0D, 0D, 0D, 0D, 0D, 0D, 0D, 0D, 0D));
         for (MonthExpense monthExpense : monthExpenses) {
             expenses.set(
@@ -106,4 +91,74 @@ public class StatisticsService {
         }
         return expenses;
     }
+
+    /**
+     * Everything the dashboard shows for the date. The month of the user, its week and its year
+     * are covered by one read of the daily totals, which is then split up in memory.
+     */
+    @Timed("service.method")
+    public Dashboard getDashboard(String date) {
+        LocalDate day = DateUtils.parse(date).toLocalDate();
+        DateRange month = getMonth(day);
+        DateRange week = DateRange.week(day);
+        DateRange year = DateRange.year(day);
+
+        Map<Long, Double> incomes = new HashMap<>();
+        Map<Long, Double> expenses = new HashMap<>();
+        Double[] perDay = {0D, 0D, 0D, 0D, 0D, 0D, 0D};
+        Double[] perMonth = {0D, 0D, 0D, 0D, 0D, 0D, 0D, 0D, 0D, 0D, 0D, 0D};
+        for (DailyCategoryTotal total : dailyTotalService.getTotals(month.span(week).span(year))) {
+            if (month.contains(total.getDate())) {
+                (total.getTransactionType() == TransactionType.INCOME ? incomes : expenses)
+                        .merge(total.getCategoryId(), total.getAmount(), Double::sum);
+            }
+            if (total.getTransactionType() != TransactionType.EXPENSE) {
+                continue;
+            }
+            if (week.contains(total.getDate())) {
+                perDay[total.getDate().getDayOfWeek().getValue() - 1] += total.getAmount();
+            }
+            if (year.contains(total.getDate())) {
+                perMonth[total.getDate().getMonthValue() - 1] += total.getAmount();
+            }
+        }
+
+        List<Category> categories = categoryService.getCategories(null);
+        Map<Long, Category> categoriesById =
+                categories.stream().collect(Collectors.toMap(Category::getId, c -> c));
+        Map<Long, Double> sums = new HashMap<>(incomes);
+        expenses.forEach((id, amount) -> sums.merge(id, amount, Double::sum));
+
+        return new Dashboard(
+                new IncomeExpense(sum(incomes), sum(expenses)),
+                Arrays.asList(perDay),
+                Arrays.asList(perMonth),
+                getTopAccounts(),
+                getCategoryAmounts(expenses, categoriesById),
+                getCategoryAmounts(incomes, categoriesById),
+                budgetService.getBudgetDtoList(month.yearMonth(), categories, sums));
+    }
+
+    private DateRange getMonth(LocalDate date) {
+        return DateRange.month(
+                date, userService.getLoggedUser().getSettings().getFirstDayOfTheMonth());
+    }
+
+    private Double sum(Map<Long, Double> amounts) {
+        return amounts.values().stream().mapToDouble(Double::doubleValue).sum();
+    }
+
+    // biggest amount first, like getAmountByCategory
+    private List<CategoryAmount> getCategoryAmounts(
+            Map<Long, Double> amounts, Map<Long, Category> categoriesById) {
+        return amounts.entrySet().stream()
+                .filter(e -> categoriesById.containsKey(e.getKey()))
+                .sorted(Map.Entry.<Long, Double>comparingByValue().reversed())
+                .map(e -> {
+                    Category category = categoriesById.get(e.getKey());
+                    return new CategoryAmount(
+                            category.getName(), e.getValue(), category.getColor());
+                })
+                .toList();
+    }
 }
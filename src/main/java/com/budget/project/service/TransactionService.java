@@ -3,15 +3,21 @@ package com.budget.project.service;
 import com.budget.project.exception.AppException;
 import com.budget.project.filter.model.Filter;
 import com.budget.project.filter.service.FilterService;
+import com.budget.project.filter.service.SqlFilter;
+import com.budget.project.filter.service.SqlFilterService;
 import com.budget.project.model.db.*;
+import com.budget.project.model.dto.Connection;
 import com.budget.project.model.dto.CustomPage;
+import com.budget.project.model.dto.Edge;
+import com.budget.project.model.dto.PageInfo;
+import com.budget.project.model.dto.TransactionRow;
 import com.budget.project.model.dto.request.input.TransactionInput;
-import com.budget.project.service.projection.DayExpense;
-import com.budget.project.service.projection.MonthExpense;
-import com.budget.project.service.projection.TransactionCategoryNameSum;
-import com.budget.project.service.projection.TransactionCategorySum;
 import com.budget.project.service.repository.TransactionRepository;
+import com.budget.project.service.repository.TransactionRowRepository;
 import com.budget.project.utils.DateUtils;
+import com.budget.project.utils.TransactionCursor;
+
+import io.micrometer.core.annotation.Timed;
 
 import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
@@ -20,12 +26,15 @@ import org.springframework.context.annotation.Lazy;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Locale;
 import java.util.Objects;
 import java.util.Optional;
 
@@ -33,49 +42,57 @@ import java.util.Optional;
 @Slf4j
 @Transactional
 public class TransactionService {
+    private static final int MAX_CONNECTION_SIZE = 100;
+    private static final int MAX_SEARCH_WORDS = 10;
 
     private final TransactionRepository transactionRepository;
     private final UserService userService;
     private final AccountService accountService;
     private final CategoryService categoryService;
     private final FilterService filterService;
+    private final DailyTotalService dailyTotalService;
+    private final TransactionRowRepository transactionRowRepository;
+    private final SqlFilterService sqlFilterService;
 
     public TransactionService(
             TransactionRepository transactionRepository,
             UserService userService,
             @Lazy AccountService accountService,
             @Lazy CategoryService categoryService,
-            FilterService filterService) {
+            FilterService filterService,
+            DailyTotalService dailyTotalService,
+            TransactionRowRepository transactionRowRepository,
+            SqlFilterService sqlFilterService) {
         this.transactionRepository = transactionRepository;
         this.userService = userService;
         this.accountService = accountService;
         this.categoryService = categoryService;
         this.filterService = filterService;
+        this.dailyTotalService = dailyTotalService;
+        this.transactionRowRepository = transactionRowRepository;
+        this.sqlFilterService = sqlFilterService;
     }
 
+    @Timed("service.method")
     @SneakyThrows
     public Transaction createTransaction(TransactionInput transactionInput) {
         validate(transactionInput);
+        Transaction transaction;
         switch (transactionInput.transactionType()) {
-            case EXPENSE -> {
-                return handleCreateExpenseTransaction(transactionInput);
-            }
-            case TRANSFER -> {
-                return handleCreateTransferTransaction(transactionInput);
-            }
-            case INCOME -> {
-                return handleCraeteIncomeTransaction(transactionInput);
-            }
+            case EXPENSE -> transaction = handleCreateExpenseTransaction(transactionInput);
+            case TRANSFER -> transaction = handleCreateTransferTransaction(transactionInput);
+            case INCOME -> transaction = handleCraeteIncomeTransaction(transactionInput);
             default -> {
                 log.warn("unsupported operation");
                 throw new AppException(HttpStatus.BAD_REQUEST);
             }
         }
+        dailyTotalService.add(transaction);
+        return transaction;
     }
 
     public Page<Transaction> getTransactionsPage(CustomPage page, Filter filter) {
-        PageRequest pageRequest =
-                PageRequest.of(page.number(), page.size(), Sort.by("date").descending());
+        PageRequest pageRequest = page.toPageRequest(Sort.by("date").descending());
         if (Objects.isNull(filter) || Objects.isNull(filter.logicOperator())) {
             return transactionRepository.findTransactionsForUser(
                     userService.getLoggedUser(), pageRequest);
@@ -84,6 +101,97 @@ public class TransactionService {
                 filterService.getSpecification(filter, Transaction.class), pageRequest);
     }
 
+    /**
+     * Reads a page of transactions as rows with one SQL query and no entities, for lists that
+     * show names rather than relations. Filters can only use the columns of
+     * {@link SqlFilterService}.
+     */
+    public List<TransactionRow> getTransactionRows(CustomPage page, Filter filter) {
+        SqlFilter sqlFilter = Objects.isNull(filter) || Objects.isNull(filter.logicOperator())
+                ? SqlFilter.NONE
+                : sqlFilterService.getTransactionFilter(filter);
+        return transactionRowRepository.findTransactionRows(
+                userService.getLoggedUser(), sqlFilter, page.toPageRequest());
+    }
+
+    /**
+     * Transactions of the user with a word in the name or note starting with each word of the
+     * query, best matches first. Characters other than letters and digits only separate words.
+     */
+    public List<TransactionRow> searchTransactions(String query, CustomPage page) {
+        PageRequest pageRequest = page.toPageRequest();
+        List<String> words = Arrays.stream(query.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+"))
+                .filter(word -> !word.isEmpty())
+                .distinct()
+                .toList();
+        if (words.isEmpty()) {
+            return List.of();
+        }
+        if (words.size() > MAX_SEARCH_WORDS) {
+            log.warn("search query has {} words", words.size());
+            throw new AppException(
+                    "search query can have at most " + MAX_SEARCH_WORDS + " words",
+                    HttpStatus.BAD_REQUEST);
+        }
+        return transactionRowRepository.searchTransactionRows(
+                userService.getLoggedUser(), words, pageRequest);
+    }
+
+    /**
+     * Pages transactions by the {@code (date, id)} keyset, newest first. One row more than
+     * requested is read to know whether there is a next page, so no count query runs unless
+     * {@code withTotalCount} is set.
+     */
+    public Connection<Transaction> getTransactionsConnection(
+            int first, String after, Filter filter, boolean withTotalCount) {
+        if (first < 1 || first > MAX_CONNECTION_SIZE) {
+            log.warn("connection size: {} is out of range", first);
+            throw new AppException(
+                    "first has to be between 1 and " + MAX_CONNECTION_SIZE,
+                    HttpStatus.BAD_REQUEST);
+        }
+        Specification<Transaction> specification =
+                Objects.isNull(filter) || Objects.isNull(filter.logicOperator())
+                        ? filterService.getUserSpecification(Transaction.class)
+                        : filterService.getSpecification(filter, Transaction.class);
+        Specification<Transaction> pageSpecification = specification;
+        if (Objects.nonNull(after)) {
+            pageSpecification = specification.and(after(TransactionCursor.decode(after)));
+        }
+        List<Transaction> transactions = transactionRepository.findBy(
+                pageSpecification,
+                query -> query.sortBy(Sort.by("date", "id").descending())
+                        .limit(first + 1)
+                        .all());
+
+        boolean hasNextPage = transactions.size() > first;
+        List<Edge<Transaction>> edges = transactions.stream()
+                .limit(first)
+                .map(transaction ->
+                        new Edge<>(TransactionCursor.of(transaction).encode(), transaction))
+                .toList();
+        PageInfo pageInfo = new PageInfo(
+                hasNextPage,
+                Objects.nonNull(after),
+                edges.isEmpty() ? null : edges.get(0).cursor(),
+                edges.isEmpty() ? null : edges.get(edges.size() - 1).cursor());
+        Long totalCount = withTotalCount ? transactionRepository.count(specification) : null;
+        return new Connection<>(edges, pageInfo, totalCount);
+    }
+
+    private Specification<Transaction> after(TransactionCursor cursor) {
+        return (root, query, criteriaBuilder) -> criteriaBuilder.or(
+                criteriaBuilder.lessThan(root.get("date"), cursor.date()),
+                criteriaBuilder.and(
+                        criteriaBuilder.equal(root.get("date"), cursor.date()),
+                        criteriaBuilder.lessThan(root.get("id"), cursor.id())));
+    }
+
+    // both directions, Account.transactions only holds those the account is accountFrom of
+    public List<Transaction> getAccountTransactions(Account account) {
+        return transactionRepository.findAllForAccount(account);
+    }
+
     public Transaction getTransaction(String hash) {
         return transactionRepository
                 .findByHashForUser(hash, userService.getLoggedUser())
@@ -177,7 +285,7 @@ public class TransactionService {
             }
         }
 
-        return transactionRepository.save(transaction.toBuilder()
+        transaction = transactionRepository.save(transaction.toBuilder()
                 .transactionType(transactionInput.transactionType())
                 .amount(transactionInput.amount())
                 .date(DateUtils.parse(transactionInput.date()))
@@ -186,10 +294,8 @@ public class TransactionService {
                 .need(transactionInput.need())
                 .note(transactionInput.note())
                 .build());
-    }
-
-    public List<Transaction> getFutureTransactions() {
-        return transactionRepository.findAllByFutureTrue();
+        dailyTotalService.add(transaction);
+        return transaction;
     }
 
     private Transaction handleCraeteIncomeTransaction(TransactionInput transactionInput) {
@@ -200,8 +306,13 @@ public class TransactionService {
             throw new AppException("incorrect category", HttpStatus.BAD_REQUEST);
         }
         SubCategory subCategory = getSubCategory(transactionInput.subCategoryHash(), category);
-        Transaction transaction =
-                Transaction.of(transactionInput, null, accountTo, category, subCategory);
+        Transaction transaction = Transaction.of(
+                transactionInput,
+                null,
+                accountTo,
+                category,
+                subCategory,
+                userService.getLoggedUser());
         transaction = transactionRepository.save(transaction);
         accountTo.getTransactions().add(transaction);
         category.getTransactions().add(transaction);
@@ -216,8 +327,8 @@ public class TransactionService {
     private Transaction handleCreateTransferTransaction(TransactionInput transactionInput) {
         Account accountFrom = accountService.getAccount(transactionInput.accountFromHash());
         Account accountTo = accountService.getAccount(transactionInput.accountToHash());
-        Transaction transaction =
-                Transaction.of(transactionInput, accountFrom, accountTo, null, null);
+        Transaction transaction = Transaction.of(
+                transactionInput, accountFrom, accountTo, null, null, userService.getLoggedUser());
         transaction = transactionRepository.save(transaction);
         accountTo.getTransactions().add(transaction);
         accountFrom.getTransactions().add(transaction);
@@ -256,8 +367,13 @@ public class TransactionService {
         }
         SubCategory subCategory = getSubCategory(transactionInput.subCategoryHash(), category);
 
-        Transaction transaction =
-                Transaction.of(transactionInput, accountFrom, null, category, subCategory);
+        Transaction transaction = Transaction.of(
+                transactionInput,
+                accountFrom,
+                null,
+                category,
+                subCategory,
+                userService.getLoggedUser());
         accountFrom.getTransactions().add(transaction);
         category.getTransactions().add(transaction);
         if (DateUtils.parse(transactionInput.date()).isAfter(LocalDateTime.now())) {
@@ -323,6 +439,7 @@ public class TransactionService {
     }
 
     private Transaction rollbackChanges(Transaction transaction) {
+        dailyTotalService.subtract(transaction);
         switch (transaction.getTransactionType()) {
             case EXPENSE -> {
                 Account account = transaction.getAccountFrom();
@@ -359,42 +476,11 @@ public class TransactionService {
         return transactionRepository.save(transaction);
     }
 
-    public List<TransactionCategoryNameSum> sumTransactionAmountForCategoriesName(
-            Boolean income, LocalDateTime startDate, LocalDateTime endDate) {
-        return transactionRepository.sumTransactionAmountForCategoriesNameAndUser(
-                income, userService.getLoggedUser(), startDate, endDate);
-    }
-
-    public List<TransactionCategorySum> sumTransactionAmountForCategories(
-            LocalDateTime startDate, LocalDateTime endDate) {
-        return transactionRepository.sumTransactionAmountForCategoriesAndUser(
-                userService.getLoggedUser(), startDate, endDate);
-    }
-
     private void subtractFromBalance(Account account, Double amount) {
-        account.setBalance(account.getBalance() - amount);
+        accountService.changeBalance(account, -amount);
     }
 
     private void addToBalance(Account account, Double amount) {
-        account.setBalance(account.getBalance() + amount);
-    }
-
-    public Optional<Double> getExpense(LocalDateTime startDate, LocalDateTime endDate) {
-        return transactionRepository.getExpense(startDate, endDate, userService.getLoggedUser());
-    }
-
-    public Optional<Double> getIncome(LocalDateTime startDate, LocalDateTime endDate) {
-        return transactionRepository.getIncome(startDate, endDate, userService.getLoggedUser());
-    }
-
-    public List<DayExpense> getExpensesPerDayOfTheWeek(
-            LocalDateTime startDate, LocalDateTime endDate) {
-        return transactionRepository.getExpensesPerDayOfTheWeek(
-                startDate, endDate, userService.getLoggedUser());
-    }
-
-    public List<MonthExpense> getExpensesMonth(LocalDateTime startDate, LocalDateTime endDate) {
-        return transactionRepository.getExpensesMonth(
-                startDate, endDate, userService.getLoggedUser());
+        accountService.changeBalance(account, amount);
     }
 }
@@ -2,8 +2,11 @@ package com.budget.project.service;
 
 import com.budget.project.exception.AppException;
 import com.budget.project.model.db.User;
+import com.budget.project.security.JwtPrincipal;
 import com.budget.project.service.repository.UserRepository;
 
+import jakarta.persistence.EntityManager;
+
 import lombok.RequiredArgsConstructor;
 import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
@@ -12,23 +15,64 @@ import org.springframework.http.HttpStatus;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
 
+import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class UserService {
+    private static final String LOGGED_USER_ATTRIBUTE = UserService.class.getName() + ".loggedUser";
+
     private final UserRepository userRepository;
+    private final EntityManager entityManager;
+    private final AtomicLong avoidedLookups = new AtomicLong();
 
+    /**
+     * Returns the logged user. Within a request the user is looked up by email only once and kept
+     * in the request attributes. Later calls reuse it while it is still managed by the current
+     * persistence context, otherwise it is reloaded by id. When the request was authenticated from
+     * trusted JWT claims the user is loaded by id straight away.
+     */
     @SneakyThrows
     public User getLoggedUser() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        Optional<User> userOptional = userRepository.findByEmail(authentication.getName());
+        RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+        Optional<User> userOptional = Optional.empty();
+        if (Objects.nonNull(requestAttributes)
+                && requestAttributes.getAttribute(
+                                LOGGED_USER_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST)
+                        instanceof User user
+                && user.getEmail().equals(authentication.getName())) {
+            if (entityManager.contains(user)) {
+                avoidedLookups.incrementAndGet();
+                return user;
+            }
+            userOptional = Optional.ofNullable(entityManager.find(User.class, user.getId()));
+        }
+        if (userOptional.isEmpty()
+                && authentication.getPrincipal() instanceof JwtPrincipal principal) {
+            userOptional = Optional.ofNullable(entityManager.find(User.class, principal.id()));
+        }
+        if (userOptional.isEmpty()) {
+            userOptional = userRepository.findByEmail(authentication.getName());
+        }
         if (userOptional.isEmpty()) {
             log.warn("there is no user with mail: {}", authentication.getName());
             throw new AppException("You don't have access", HttpStatus.UNAUTHORIZED);
         }
+        if (Objects.nonNull(requestAttributes)) {
+            requestAttributes.setAttribute(
+                    LOGGED_USER_ATTRIBUTE, userOptional.get(), RequestAttributes.SCOPE_REQUEST);
+        }
         return userOptional.get();
     }
+
+    public long getAvoidedLookups() {
+        return avoidedLookups.get();
+    }
 }
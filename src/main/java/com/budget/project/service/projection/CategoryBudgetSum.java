@@ -1,9 +1,12 @@
 package com.budget.project.service.projection;
 
+import com.budget.project.model.db.Budget;
 import com.budget.project.model.db.Category;
 
-public interface TransactionCategorySum {
+public interface CategoryBudgetSum {
     Category getCategory();
 
+    Budget getBudget();
+
     Double getSumForCategory();
 }
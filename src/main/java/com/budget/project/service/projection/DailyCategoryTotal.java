@@ -0,0 +1,15 @@
+package com.budget.project.service.projection;
+
+import com.budget.project.model.db.TransactionType;
+
+import java.time.LocalDate;
+
+public interface DailyCategoryTotal {
+    LocalDate getDate();
+
+    Long getCategoryId();
+
+    TransactionType getTransactionType();
+
+    Double getAmount();
+}
@@ -0,0 +1,15 @@
+package com.budget.project.service.projection;
+
+import com.budget.project.model.db.TransactionType;
+
+public interface DueTransaction {
+    Long getId();
+
+    TransactionType getTransactionType();
+
+    Double getAmount();
+
+    Long getAccountFromId();
+
+    Long getAccountToId();
+}
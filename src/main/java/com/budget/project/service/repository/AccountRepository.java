@@ -3,13 +3,19 @@ package com.budget.project.service.repository;
 import com.budget.project.model.db.Account;
 import com.budget.project.model.db.User;
 
+import jakarta.persistence.QueryHint;
+
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -21,13 +27,29 @@ public interface AccountRepository
 
     List<Account> findAllByUsersContaining(User user);
 
-    Optional<Account> findByHashAndUsersContainingIgnoreCase(String hash, User user);
-
     Optional<Account> findByNameAndUsersContainingIgnoreCase(String name, User user);
 
+    List<Account> findAllByNameInAndUsersContaining(Collection<String> names, User user);
+
     @Query("SELECT a FROM Account a"
             + " where (:user MEMBER OF a.users) and "
             + "a.archived = false"
             + " order by a.balance desc limit 3")
     List<Account> getTopAccounts(User user);
+
+    @Query("SELECT DISTINCT a FROM Account a LEFT JOIN FETCH a.subAccounts WHERE a IN :accounts")
+    List<Account> findAllWithSubAccounts(Collection<Account> accounts);
+
+    // native, because Hibernate renders the JPQL arithmetic with a cast that H2 can't parse, it
+    // touches no cached table as far as Hibernate knows, AccountService evicts the one account
+    @Modifying(flushAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = ""))
+    @Query(
+            value = "UPDATE account SET balance = balance + :delta WHERE id = :id",
+            nativeQuery = true)
+    int addToBalance(Long id, Double delta);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Account a SET a.balance = :balance WHERE a.id = :id")
+    int setBalance(Long id, Double balance);
 }
@@ -3,8 +3,11 @@ package com.budget.project.service.repository;
 import com.budget.project.model.db.Budget;
 
 import com.budget.project.model.db.User;
+import com.budget.project.service.projection.CategoryBudgetSum;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
+import java.time.LocalDate;
 import java.time.YearMonth;
 import java.util.List;
 import java.util.Optional;
@@ -12,4 +15,14 @@ import java.util.Optional;
 public interface BudgetRepository extends JpaRepository<Budget, Long> {
     List<Budget> findAllByDateAndUser(YearMonth date, User user);
     Optional<Budget> findByHashAndUser(String hash, User user);
+
+    // a row per category and budget, the sub category of the budget is fetched with it
+    @Query("SELECT c as category, b as budget, (SELECT sum(d.amount) FROM DailyTotal d"
+            + " WHERE d.key.userId = u.id AND d.key.categoryId = c.id"
+            + " AND d.key.date BETWEEN :startDate AND :endDate) as sumForCategory"
+            + " FROM User u JOIN u.categories c"
+            + " LEFT JOIN Budget b ON b.category.id = c.id AND b.user = u AND b.date = :date"
+            + " LEFT JOIN FETCH b.subCategory WHERE u = :user")
+    List<CategoryBudgetSum> findCategoriesWithBudgetAndSum(
+            User user, YearMonth date, LocalDate startDate, LocalDate endDate);
 }
@@ -7,18 +7,24 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 public interface CategoryRepository
         extends JpaRepository<Category, Long>, JpaSpecificationExecutor<Category> {
-    Optional<Category> findCategoryByHashAndUsersContainingIgnoreCase(String hash, User user);
-
     Optional<Category> findCategoryByNameAndUsersContainingIgnoreCaseAndIncome(
             String hash, User user, Boolean income);
 
     Page<Category> findAllByUsersContaining(PageRequest pageRequest, User user);
 
     List<Category> findAllByUsersContaining(User user);
+
+    List<Category> findAllByNameInAndUsersContaining(Collection<String> names, User user);
+
+    @Query("SELECT DISTINCT c FROM Category c LEFT JOIN FETCH c.subCategories"
+            + " WHERE c IN :categories")
+    List<Category> findAllWithSubCategories(Collection<Category> categories);
 }
@@ -0,0 +1,108 @@
+package com.budget.project.service.repository;
+
+import com.budget.project.model.db.DailyTotal;
+import com.budget.project.model.db.DailyTotalKey;
+import com.budget.project.model.db.TransactionType;
+import com.budget.project.service.projection.DailyCategoryTotal;
+import com.budget.project.service.projection.DayExpense;
+import com.budget.project.service.projection.MonthExpense;
+import com.budget.project.service.projection.TransactionCategoryNameSum;
+
+import jakarta.persistence.QueryHint;
+
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+public interface DailyTotalRepository extends JpaRepository<DailyTotal, DailyTotalKey> {
+
+    // together with addAmount an upsert that is safe against concurrent inserts of the same key,
+    // these statements name their table so Hibernate doesn't clear the second-level cache
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "daily_total"))
+    @Query(
+            value = "INSERT INTO daily_total (user_id, date, category_id, sub_category_id,"
+                    + " transaction_type, amount) VALUES (:userId, :date, :categoryId,"
+                    + " :subCategoryId, :transactionType, 0) ON CONFLICT DO NOTHING",
+            nativeQuery = true)
+    void insertIfMissing(
+            Long userId,
+            LocalDate date,
+            Long categoryId,
+            Long subCategoryId,
+            String transactionType);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "daily_total"))
+    @Query(
+            value = "UPDATE daily_total SET amount = amount + :amount WHERE user_id = :userId"
+                    + " AND date = :date AND category_id = :categoryId"
+                    + " AND sub_category_id = :subCategoryId"
+                    + " AND transaction_type = :transactionType",
+            nativeQuery = true)
+    void addAmount(
+            Long userId,
+            LocalDate date,
+            Long categoryId,
+            Long subCategoryId,
+            String transactionType,
+            BigDecimal amount);
+
+    // a day and category without transactions has no row, like before the first one was added
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "daily_total"))
+    @Query(
+            value = "DELETE FROM daily_total WHERE user_id = :userId AND date = :date"
+                    + " AND category_id = :categoryId AND sub_category_id = :subCategoryId"
+                    + " AND transaction_type = :transactionType AND amount = 0",
+            nativeQuery = true)
+    void deleteIfEmpty(
+            Long userId,
+            LocalDate date,
+            Long categoryId,
+            Long subCategoryId,
+            String transactionType);
+
+    @Query("SELECT c.name as categoryName, sum(d.amount) as sumForCategory,"
+            + " c.color as categoryColor FROM DailyTotal d JOIN d.category c"
+            + " WHERE d.key.userId = :userId AND c.income = :income"
+            + " AND d.key.date BETWEEN :startDate AND :endDate"
+            + " GROUP BY c.name, c.color ORDER BY sum(d.amount) DESC")
+    List<TransactionCategoryNameSum> sumAmountForCategoriesName(
+            Long userId, Boolean income, LocalDate startDate, LocalDate endDate);
+
+    @Query("SELECT sum(d.amount) FROM DailyTotal d WHERE d.key.userId = :userId"
+            + " AND d.key.transactionType = :transactionType"
+            + " AND d.key.date BETWEEN :startDate AND :endDate")
+    Optional<Double> sumAmount(
+            Long userId, TransactionType transactionType, LocalDate startDate, LocalDate endDate);
+
+    @Query("SELECT sum(d.amount) as expense, EXTRACT(day FROM d.key.date) as day"
+            + " FROM DailyTotal d WHERE d.key.userId = :userId"
+            + " AND d.key.transactionType = 'EXPENSE'"
+            + " AND d.key.date BETWEEN :startDate AND :endDate"
+            + " GROUP BY EXTRACT(day FROM d.key.date)")
+    List<DayExpense> getExpensesPerDay(Long userId, LocalDate startDate, LocalDate endDate);
+
+    @Query("SELECT sum(d.amount) as expense, EXTRACT(month FROM d.key.date) as month"
+            + " FROM DailyTotal d WHERE d.key.userId = :userId"
+            + " AND d.key.transactionType = 'EXPENSE'"
+            + " AND d.key.date BETWEEN :startDate AND :endDate"
+            + " GROUP BY EXTRACT(month FROM d.key.date)")
+    List<MonthExpense> getExpensesPerMonth(Long userId, LocalDate startDate, LocalDate endDate);
+
+    @Query("SELECT d.key.date as date, d.key.categoryId as categoryId,"
+            + " d.key.transactionType as transactionType, sum(d.amount) as amount"
+            + " FROM DailyTotal d WHERE d.key.userId = :userId"
+            + " AND d.key.date BETWEEN :startDate AND :endDate"
+            + " GROUP BY d.key.date, d.key.categoryId, d.key.transactionType")
+    List<DailyCategoryTotal> sumAmountPerDayAndCategory(
+            Long userId, LocalDate startDate, LocalDate endDate);
+}
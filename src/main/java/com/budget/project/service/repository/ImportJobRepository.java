@@ -0,0 +1,42 @@
+package com.budget.project.service.repository;
+
+import com.budget.project.model.db.ImportJob;
+import com.budget.project.model.db.ImportJobStatus;
+import com.budget.project.model.db.User;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ImportJobRepository extends JpaRepository<ImportJob, Long> {
+    Optional<ImportJob> findByHashAndUser(String hash, User user);
+
+    List<ImportJob> findAllByUserOrderByCreatedAtDesc(User user);
+
+    @Modifying
+    @Query("UPDATE ImportJob j SET j.rowsProcessed = :rowsProcessed, j.rowsFailed = :rowsFailed "
+            + "WHERE j.id = :id")
+    int updateProgress(Long id, Long rowsProcessed, Long rowsFailed);
+
+    @Modifying
+    @Query("UPDATE ImportJob j SET j.status = :status, j.startedAt = :startedAt WHERE j.id = :id")
+    int markStarted(Long id, ImportJobStatus status, LocalDateTime startedAt);
+
+    @Modifying
+    @Query("UPDATE ImportJob j SET j.status = :status, j.rowsProcessed = :rowsProcessed, "
+            + "j.rowsFailed = :rowsFailed, j.error = :error, j.finishedAt = :finishedAt "
+            + "WHERE j.id = :id")
+    int markFinished(
+            Long id,
+            ImportJobStatus status,
+            Long rowsProcessed,
+            Long rowsFailed,
+            String error,
+            LocalDateTime finishedAt);
+}
@@ -0,0 +1,28 @@
+package com.budget.project.service.repository;
+
+import jakarta.persistence.EntityManager;
+
+import lombok.RequiredArgsConstructor;
+
+import org.hibernate.Session;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+/**
+ * Loads entities by their hash, the natural id. For an entity in the second-level cache the hash
+ * is resolved to the id and the id to the entity there, without a query. Whether the entity
+ * belongs to the logged user is up to the caller.
+ */
+@Repository
+@RequiredArgsConstructor
+public class NaturalIdRepository {
+    private final EntityManager entityManager;
+
+    public <T> Optional<T> findByHash(Class<T> entityClass, String hash) {
+        return entityManager
+                .unwrap(Session.class)
+                .bySimpleNaturalId(entityClass)
+                .loadOptional(hash);
+    }
+}
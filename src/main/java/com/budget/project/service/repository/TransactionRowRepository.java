@@ -0,0 +1,123 @@
+package com.budget.project.service.repository;
+
+import com.budget.project.filter.service.SqlFilter;
+import com.budget.project.model.db.Currency;
+import com.budget.project.model.db.TransactionType;
+import com.budget.project.model.db.User;
+import com.budget.project.model.dto.TransactionRow;
+
+import org.springframework.boot.jdbc.DatabaseDriver;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.stereotype.Repository;
+
+import java.sql.DatabaseMetaData;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * Reads transactions with their names of the related entities as rows, with plain JDBC. The
+ * condition of the {@link SqlFilter} goes between the fixed parts of the statement. Search runs
+ * on the {@code search} column and its GIN index on PostgreSQL, see the migration in
+ * {@code db/vendor/postgresql}; other databases, H2 in the tests, match every word with
+ * {@code LIKE} instead.
+ */
+@Repository
+public class TransactionRowRepository {
+    private static final String SELECT = "SELECT t.hash, t.name, t.note, t.amount, t.date,"
+            + " t.need, t.transaction_type, t.currency, c.name AS category_name,"
+            + " sc.name AS sub_category_name, a_from.name AS account_from_name,"
+            + " a_to.name AS account_to_name FROM transaction t"
+            + " LEFT JOIN category c ON c.id = t.category_id"
+            + " LEFT JOIN sub_category sc ON sc.id = t.sub_category_id"
+            + " LEFT JOIN account a_from ON a_from.id = t.account_from_id"
+            + " LEFT JOIN account a_to ON a_to.id = t.account_to_id";
+    private static final String PAGE = " t.date DESC, t.id DESC LIMIT ? OFFSET ?";
+    // the simple configuration only lower cases, names and notes are not in one language
+    private static final String SEARCH = SELECT
+            + " CROSS JOIN to_tsquery('simple', ?) AS q (query)"
+            + " WHERE t.owner_id = ? AND t.search @@ q.query"
+            + " ORDER BY ts_rank(t.search, q.query) DESC," + PAGE;
+    // a word starts the text or follows a space, names weigh more than notes like in the vector
+    private static final String TEXT = "LOWER(' ' || COALESCE(t.name, '') || ' '"
+            + " || COALESCE(t.note, ''))";
+    private static final String NAME = "LOWER(' ' || COALESCE(t.name, ''))";
+    private static final RowMapper<TransactionRow> ROW_MAPPER = (resultSet, row) ->
+            new TransactionRow(
+                    resultSet.getString("hash"),
+                    resultSet.getString("name"),
+                    resultSet.getString("note"),
+                    resultSet.getDouble("amount"),
+                    resultSet.getObject("date", LocalDateTime.class),
+                    resultSet.getObject("need", Boolean.class),
+                    TransactionType.valueOf(resultSet.getString("transaction_type")),
+                    Currency.valueOf(resultSet.getString("currency")),
+                    resultSet.getString("category_name"),
+                    resultSet.getString("sub_category_name"),
+                    resultSet.getString("account_from_name"),
+                    resultSet.getString("account_to_name"));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean postgres;
+
+    // the vendor is read from the connection like Flyway does for its {vendor} locations, so the
+    // search always matches the migrations that ran, whatever wraps the configured URL
+    public TransactionRowRepository(JdbcTemplate jdbcTemplate) throws MetaDataAccessException {
+        this.jdbcTemplate = jdbcTemplate;
+        String url = JdbcUtils.extractDatabaseMetaData(
+                Objects.requireNonNull(jdbcTemplate.getDataSource()), DatabaseMetaData::getURL);
+        this.postgres = DatabaseDriver.fromJdbcUrl(url) == DatabaseDriver.POSTGRESQL;
+    }
+
+    public List<TransactionRow> findTransactionRows(
+            User owner, SqlFilter filter, Pageable pageable) {
+        Object[] filterParameters = filter.parameters();
+        Object[] parameters = new Object[filterParameters.length + 3];
+        parameters[0] = owner.getId();
+        System.arraycopy(filterParameters, 0, parameters, 1, filterParameters.length);
+        parameters[parameters.length - 2] = pageable.getPageSize();
+        parameters[parameters.length - 1] = pageable.getOffset();
+        return jdbcTemplate.query(
+                SELECT + " WHERE t.owner_id = ? AND " + filter.condition() + " ORDER BY" + PAGE,
+                ROW_MAPPER,
+                parameters);
+    }
+
+    /**
+     * Transactions whose name or note has a word starting with each of the words, best matches
+     * first. The words have to be letters and digits only.
+     */
+    public List<TransactionRow> searchTransactionRows(
+            User owner, List<String> words, Pageable pageable) {
+        if (postgres) {
+            String query = words.stream()
+                    .map(word -> word + ":*")
+                    .collect(Collectors.joining(" & "));
+            return jdbcTemplate.query(
+                    SEARCH,
+                    ROW_MAPPER,
+                    query,
+                    owner.getId(),
+                    pageable.getPageSize(),
+                    pageable.getOffset());
+        }
+        List<Object> parameters = new ArrayList<>();
+        parameters.add(owner.getId());
+        words.forEach(word -> parameters.add("% " + word + "%"));
+        words.forEach(word -> parameters.add("% " + word + "%"));
+        parameters.add(pageable.getPageSize());
+        parameters.add(pageable.getOffset());
+        String sql = SELECT + " WHERE t.owner_id = ?"
+                + (" AND " + TEXT + " LIKE ?").repeat(words.size())
+                + " ORDER BY"
+                + (" CASE WHEN " + NAME + " LIKE ? THEN 1 ELSE 0 END +").repeat(words.size())
+                + " 0 DESC," + PAGE;
+        return jdbcTemplate.query(sql, ROW_MAPPER, parameters.toArray());
+    }
+}
@@ -0,0 +1,41 @@
+package com.budget.project.utils;
+
+import java.util.*;
+import java.util.function.Function;
+
+public class BatchUtils {
+
+    /**
+     * Resolves a to-one relation of many entities with one query. The relation is only read for
+     * its id, so a lazy proxy is never loaded, and {@code load} reads the related entities by
+     * those ids. Owners without the relation are left out of the map.
+     */
+    public static <O, R> Map<O, R> resolve(
+            Collection<O> owners,
+            Function<O, R> relation,
+            Function<R, Long> id,
+            Function<Set<Long>, List<R>> load) {
+        Set<Long> ids = new HashSet<>();
+        for (O owner : owners) {
+            R related = relation.apply(owner);
+            if (Objects.nonNull(related)) {
+                ids.add(id.apply(related));
+            }
+        }
+        if (ids.isEmpty()) {
+            return Map.of();
+        }
+        Map<Long, R> loaded = new HashMap<>();
+        for (R related : load.apply(ids)) {
+            loaded.put(id.apply(related), related);
+        }
+        Map<O, R> resolved = new HashMap<>();
+        for (O owner : owners) {
+            R related = relation.apply(owner);
+            if (Objects.nonNull(related)) {
+                resolved.put(owner, loaded.get(id.apply(related)));
+            }
+        }
+        return resolved;
+    }
+}
@@ -0,0 +1,21 @@
+package com.budget.project.utils;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class CacheUtils {
+
+    /**
+     * A thread safe map that drops its least recently used entry once it holds more than
+     * {@code maxSize} entries.
+     */
+    public static <K, V> Map<K, V> lru(int maxSize) {
+        return Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                return size() > maxSize;
+            }
+        });
+    }
+}
@@ -0,0 +1,58 @@
+package com.budget.project.utils;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.temporal.TemporalAdjusters;
+
+/**
+ * Inclusive range of days. The factories hold the period math shared by the statistics, the
+ * budgets and the dashboard.
+ */
+public record DateRange(LocalDate start, LocalDate end) {
+
+    /**
+     * The month of the user containing the date. It starts on the first day of the month from the
+     * settings, days before it belong to the month before.
+     */
+    public static DateRange month(LocalDate date, int firstDayOfTheMonth) {
+        YearMonth yearMonth = YearMonth.from(date);
+        if (date.getDayOfMonth() < firstDayOfTheMonth) {
+            yearMonth = yearMonth.minusMonths(1);
+        }
+        return month(yearMonth, firstDayOfTheMonth);
+    }
+
+    public static DateRange month(YearMonth yearMonth, int firstDayOfTheMonth) {
+        LocalDate start = yearMonth.atDay(Math.min(firstDayOfTheMonth, yearMonth.lengthOfMonth()));
+        return new DateRange(start, start.plusMonths(1).minusDays(1));
+    }
+
+    // monday to sunday
+    public static DateRange week(LocalDate date) {
+        return new DateRange(
+                date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)),
+                date.with(TemporalAdjusters.nextOrSame(DayOfWeek.SUNDAY)));
+    }
+
+    public static DateRange year(LocalDate date) {
+        return new DateRange(
+                date.with(TemporalAdjusters.firstDayOfYear()),
+                date.with(TemporalAdjusters.lastDayOfYear()));
+    }
+
+    public YearMonth yearMonth() {
+        return YearMonth.from(start);
+    }
+
+    public boolean contains(LocalDate date) {
+        return !date.isBefore(start) && !date.isAfter(end);
+    }
+
+    // the smallest range covering both
+    public DateRange span(DateRange other) {
+        return new DateRange(
+                start.isBefore(other.start) ? start : other.start,
+                end.isAfter(other.end) ? end : other.end);
+    }
+}
@@ -25,8 +25,13 @@ public class DateUtils {
     }
 
     public static LocalDateTime parse(String date, String format) {
+        return parse(date, DateTimeFormatter.ofPattern(format));
+    }
+
+    // formatters are immutable, callers parsing many dates should pass a shared one
+    public static LocalDateTime parse(String date, DateTimeFormatter formatter) {
         try {
-            LocalDate dateTime = LocalDate.parse(date, DateTimeFormatter.ofPattern(format));
+            LocalDate dateTime = LocalDate.parse(date, formatter);
             return LocalDateTime.of(dateTime, LocalTime.MIN);
         } catch (Exception ex) {
             log.warn("problem with date parsing: " + ex);
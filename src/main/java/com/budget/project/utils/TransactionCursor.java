@@ -0,0 +1,45 @@
+package com.budget.project.utils;
+
+import com.budget.project.exception.AppException;
+import com.budget.project.model.db.Transaction;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.http.HttpStatus;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Position of a transaction in the {@code (date, id)} order of transaction connections, encoded
+ * as an opaque string for clients.
+ */
+@Slf4j
+public record TransactionCursor(LocalDateTime date, Long id) {
+    private static final String SEPARATOR = "|";
+
+    public static TransactionCursor of(Transaction transaction) {
+        return new TransactionCursor(transaction.getDate(), transaction.getId());
+    }
+
+    public static TransactionCursor decode(String cursor) {
+        try {
+            String value =
+                    new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = value.lastIndexOf(SEPARATOR);
+            return new TransactionCursor(
+                    LocalDateTime.parse(value.substring(0, separator)),
+                    Long.valueOf(value.substring(separator + 1)));
+        } catch (RuntimeException ex) {
+            log.warn("invalid cursor: {}", cursor);
+            throw new AppException("invalid cursor", HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    public String encode() {
+        return Base64.getUrlEncoder()
+                .withoutPadding()
+                .encodeToString((date + SEPARATOR + id).getBytes(StandardCharsets.UTF_8));
+    }
+}
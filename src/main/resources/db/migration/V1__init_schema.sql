@@ -0,0 +1,194 @@
+-- Schema as it was generated by Hibernate before the migrations took it over.
+
+CREATE SEQUENCE account_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE budget_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE category_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE import_job_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE planned_income_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE refresh_token_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE sub_category_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE transaction_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE trip_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE user_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE "user" (
+    id BIGINT NOT NULL,
+    email VARCHAR(255) NOT NULL,
+    hash VARCHAR(255) NOT NULL,
+    password VARCHAR(255) NOT NULL,
+    role VARCHAR(255) CHECK (role IN ('USER', 'ADMIN')),
+    settings JSONB,
+    PRIMARY KEY (id),
+    CONSTRAINT user_email_key UNIQUE (email),
+    CONSTRAINT user_hash_key UNIQUE (hash)
+);
+
+CREATE TABLE account (
+    id BIGINT NOT NULL,
+    archived BOOLEAN NOT NULL,
+    balance FLOAT(53) NOT NULL,
+    parent_id BIGINT,
+    account_type VARCHAR(255) NOT NULL CHECK (account_type IN ('REGULAR', 'SAVINGS')),
+    color VARCHAR(255) NOT NULL,
+    currency VARCHAR(255) NOT NULL CHECK (currency IN ('PLN', 'EUR', 'USD')),
+    description VARCHAR(255),
+    hash VARCHAR(255) NOT NULL,
+    name VARCHAR(255) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT account_hash_key UNIQUE (hash),
+    CONSTRAINT account_parent_fk FOREIGN KEY (parent_id) REFERENCES account
+);
+
+CREATE TABLE account_sub_accounts (
+    account_id BIGINT NOT NULL,
+    sub_accounts_id BIGINT NOT NULL,
+    PRIMARY KEY (account_id, sub_accounts_id),
+    CONSTRAINT account_sub_accounts_sub_account_key UNIQUE (sub_accounts_id),
+    CONSTRAINT account_sub_accounts_account_fk FOREIGN KEY (account_id) REFERENCES account,
+    CONSTRAINT account_sub_accounts_sub_account_fk
+        FOREIGN KEY (sub_accounts_id) REFERENCES account
+);
+
+CREATE TABLE category (
+    id BIGINT NOT NULL,
+    archived BOOLEAN NOT NULL,
+    income BOOLEAN NOT NULL,
+    color VARCHAR(255),
+    hash VARCHAR(255) NOT NULL,
+    name VARCHAR(255) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT category_hash_key UNIQUE (hash)
+);
+
+CREATE TABLE sub_category (
+    id BIGINT NOT NULL,
+    parent_id BIGINT NOT NULL,
+    color VARCHAR(255),
+    hash VARCHAR(255) NOT NULL,
+    name VARCHAR(255) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT sub_category_hash_key UNIQUE (hash),
+    CONSTRAINT sub_category_parent_fk FOREIGN KEY (parent_id) REFERENCES category
+);
+
+CREATE TABLE trip (
+    id BIGINT NOT NULL,
+    end_date DATE,
+    start_date DATE,
+    hash VARCHAR(255) NOT NULL,
+    name VARCHAR(255) NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE budget (
+    id BIGINT NOT NULL,
+    date DATE NOT NULL,
+    planned_budget FLOAT(53) NOT NULL,
+    category_id BIGINT NOT NULL,
+    sub_category_id BIGINT,
+    trip_id BIGINT,
+    user_id BIGINT,
+    hash VARCHAR(255) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT budget_hash_key UNIQUE (hash),
+    CONSTRAINT budget_category_fk FOREIGN KEY (category_id) REFERENCES category,
+    CONSTRAINT budget_sub_category_fk FOREIGN KEY (sub_category_id) REFERENCES sub_category,
+    CONSTRAINT budget_trip_fk FOREIGN KEY (trip_id) REFERENCES trip,
+    CONSTRAINT budget_user_fk FOREIGN KEY (user_id) REFERENCES "user"
+);
+
+CREATE TABLE planned_income (
+    id BIGINT NOT NULL,
+    amount FLOAT(53) NOT NULL,
+    date DATE NOT NULL,
+    user_id BIGINT,
+    hash VARCHAR(255) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT planned_income_hash_key UNIQUE (hash),
+    CONSTRAINT planned_income_user_fk FOREIGN KEY (user_id) REFERENCES "user"
+);
+
+CREATE TABLE import_job (
+    id BIGINT NOT NULL,
+    created_at TIMESTAMP(6) NOT NULL,
+    started_at TIMESTAMP(6),
+    finished_at TIMESTAMP(6),
+    rows_failed BIGINT NOT NULL,
+    rows_processed BIGINT NOT NULL,
+    user_id BIGINT,
+    error VARCHAR(255),
+    file_name VARCHAR(255),
+    format VARCHAR(255) NOT NULL,
+    hash VARCHAR(255) NOT NULL,
+    status VARCHAR(255) NOT NULL
+        CHECK (status IN ('PENDING', 'RUNNING', 'COMPLETED', 'FAILED')),
+    PRIMARY KEY (id),
+    CONSTRAINT import_job_hash_key UNIQUE (hash),
+    CONSTRAINT import_job_user_fk FOREIGN KEY (user_id) REFERENCES "user"
+);
+
+CREATE TABLE refresh_token (
+    id BIGINT NOT NULL,
+    expiry_date TIMESTAMP(6) WITH TIME ZONE,
+    user_id BIGINT,
+    token VARCHAR(255),
+    PRIMARY KEY (id),
+    CONSTRAINT refresh_token_token_key UNIQUE (token),
+    CONSTRAINT refresh_token_user_fk FOREIGN KEY (user_id) REFERENCES "user"
+);
+
+CREATE TABLE transaction (
+    id BIGINT NOT NULL,
+    amount FLOAT(53) NOT NULL,
+    future BOOLEAN,
+    need BOOLEAN,
+    account_from_id BIGINT,
+    account_to_id BIGINT,
+    category_id BIGINT,
+    sub_category_id BIGINT,
+    owner_id BIGINT NOT NULL,
+    date TIMESTAMP(6) NOT NULL,
+    currency VARCHAR(255) NOT NULL CHECK (currency IN ('PLN', 'EUR', 'USD')),
+    hash VARCHAR(255) NOT NULL,
+    name VARCHAR(255),
+    note VARCHAR(255),
+    transaction_type VARCHAR(255) NOT NULL
+        CHECK (transaction_type IN ('INCOME', 'EXPENSE', 'TRANSFER')),
+    PRIMARY KEY (id),
+    CONSTRAINT transaction_hash_key UNIQUE (hash),
+    CONSTRAINT transaction_account_from_fk
+        FOREIGN KEY (account_from_id) REFERENCES account ON DELETE CASCADE,
+    CONSTRAINT transaction_account_to_fk
+        FOREIGN KEY (account_to_id) REFERENCES account ON DELETE CASCADE,
+    CONSTRAINT transaction_category_fk FOREIGN KEY (category_id) REFERENCES category,
+    CONSTRAINT transaction_sub_category_fk
+        FOREIGN KEY (sub_category_id) REFERENCES sub_category,
+    CONSTRAINT transaction_owner_fk FOREIGN KEY (owner_id) REFERENCES "user" ON DELETE CASCADE
+);
+
+CREATE TABLE user_account (
+    account_id BIGINT NOT NULL,
+    user_id BIGINT NOT NULL,
+    PRIMARY KEY (account_id, user_id),
+    CONSTRAINT user_account_account_fk FOREIGN KEY (account_id) REFERENCES account,
+    CONSTRAINT user_account_user_fk FOREIGN KEY (user_id) REFERENCES "user"
+);
+
+CREATE TABLE user_category (
+    category_id BIGINT NOT NULL,
+    user_id BIGINT NOT NULL,
+    PRIMARY KEY (category_id, user_id),
+    CONSTRAINT user_category_category_fk FOREIGN KEY (category_id) REFERENCES category,
+    CONSTRAINT user_category_user_fk FOREIGN KEY (user_id) REFERENCES "user"
+);
+
+CREATE TABLE user_trip (
+    trip_id BIGINT NOT NULL,
+    user_id BIGINT NOT NULL,
+    PRIMARY KEY (trip_id, user_id),
+    CONSTRAINT user_trip_trip_fk FOREIGN KEY (trip_id) REFERENCES trip,
+    CONSTRAINT user_trip_user_fk FOREIGN KEY (user_id) REFERENCES "user"
+);
+
+CREATE INDEX transaction_date_id_idx ON transaction (date, id);
+CREATE INDEX transaction_owner_date_id_idx ON transaction (owner_id, date, id);
@@ -0,0 +1,32 @@
+-- Indexes matched to the repository queries. PostgreSQL does not index foreign keys on its own,
+-- so the columns used by joins and cascading deletes get one as well.
+
+-- income, expense and per day or month statistics of a user: equality on owner and type, range
+-- on date
+CREATE INDEX transaction_owner_type_date_idx ON transaction (owner_id, transaction_type, date);
+
+-- transactions of an account or a category, also used when one of them is deleted
+CREATE INDEX transaction_account_from_date_idx ON transaction (account_from_id, date);
+CREATE INDEX transaction_account_to_date_idx ON transaction (account_to_id, date);
+CREATE INDEX transaction_category_date_idx ON transaction (category_id, date);
+CREATE INDEX transaction_sub_category_idx ON transaction (sub_category_id);
+
+-- due future transactions are settled in pages ordered by id
+CREATE INDEX transaction_future_id_idx ON transaction (future, id);
+
+-- budgets and planned income of a user for a month
+CREATE INDEX budget_user_date_idx ON budget (user_id, date);
+CREATE INDEX budget_category_idx ON budget (category_id);
+CREATE INDEX planned_income_user_date_idx ON planned_income (user_id, date);
+
+-- import jobs of a user, newest first
+CREATE INDEX import_job_user_created_at_idx ON import_job (user_id, created_at);
+
+-- the primary keys of the join tables start with the entity, these serve lookups by user
+CREATE INDEX user_account_user_idx ON user_account (user_id, account_id);
+CREATE INDEX user_category_user_idx ON user_category (user_id, category_id);
+CREATE INDEX user_trip_user_idx ON user_trip (user_id, trip_id);
+
+CREATE INDEX sub_category_parent_idx ON sub_category (parent_id);
+CREATE INDEX account_parent_idx ON account (parent_id);
+CREATE INDEX refresh_token_user_idx ON refresh_token (user_id);
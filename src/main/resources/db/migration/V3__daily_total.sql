@@ -0,0 +1,30 @@
+-- Income and expense of a user per day, category and sub category, kept in step with the
+-- transactions so the statistics read one row per day instead of every transaction. Transfers
+-- have no category and are not counted. 0 stands for no sub category, so the whole key can be
+-- the primary key and the upserts can rely on it.
+CREATE TABLE daily_total (
+    user_id BIGINT NOT NULL,
+    date DATE NOT NULL,
+    category_id BIGINT NOT NULL,
+    sub_category_id BIGINT NOT NULL,
+    transaction_type VARCHAR(255) NOT NULL CHECK (transaction_type IN ('INCOME', 'EXPENSE')),
+    amount FLOAT(53) NOT NULL,
+    CONSTRAINT daily_total_pkey
+        PRIMARY KEY (user_id, date, category_id, sub_category_id, transaction_type),
+    CONSTRAINT daily_total_user_fk FOREIGN KEY (user_id) REFERENCES "user" ON DELETE CASCADE,
+    CONSTRAINT daily_total_category_fk
+        FOREIGN KEY (category_id) REFERENCES category ON DELETE CASCADE
+);
+
+CREATE INDEX daily_total_category_idx ON daily_total (category_id);
+
+INSERT INTO daily_total (user_id, date, category_id, sub_category_id, transaction_type, amount)
+SELECT owner_id, CAST(date AS DATE), category_id, COALESCE(sub_category_id, 0), transaction_type,
+       SUM(amount)
+FROM transaction
+WHERE category_id IS NOT NULL AND transaction_type IN ('INCOME', 'EXPENSE')
+GROUP BY owner_id, CAST(date AS DATE), category_id, COALESCE(sub_category_id, 0),
+         transaction_type;
+
+-- only the statistics queries used it and they read the daily totals now
+DROP INDEX transaction_owner_type_date_idx;
@@ -0,0 +1,4 @@
+-- the budgets sum the month of every category on its own, so the category leads the index, it
+-- still serves the cascading delete of a category
+DROP INDEX daily_total_category_idx;
+CREATE INDEX daily_total_category_user_date_idx ON daily_total (category_id, user_id, date);
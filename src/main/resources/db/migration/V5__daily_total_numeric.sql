@@ -0,0 +1,6 @@
+-- Amounts are added and subtracted over and over, as a float the total of a day that lost all
+-- its transactions was left a tiny bit off 0. As a decimal the sums are exact, and a row is
+-- deleted once its amount is back at 0, so categories without transactions are not listed.
+ALTER TABLE daily_total ALTER COLUMN amount SET DATA TYPE NUMERIC(19, 2);
+
+DELETE FROM daily_total WHERE amount = 0;
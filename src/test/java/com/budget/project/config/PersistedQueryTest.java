@@ -0,0 +1,103 @@
+package com.budget.project.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Map;
+
+@AutoConfigureMockMvc
+@SpringBootTest
+@ActiveProfiles("test")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
+class PersistedQueryTest {
+    // language=GraphQL
+    private static final String QUERY = "query { __typename }";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void shouldExecuteQueryByHash_whenQueryWasSentWithItOnce() throws Exception {
+        String hash = sha256(QUERY);
+
+        execute(null, hash)
+                .andExpect(jsonPath("$.errors[0].message").value("PersistedQueryNotFound"));
+        execute(QUERY, hash).andExpect(jsonPath("$.data.__typename").value("Query"));
+        execute(null, hash).andExpect(jsonPath("$.data.__typename").value("Query"));
+
+        assertThat(documents("persisted", "hit")).isEqualTo(1);
+    }
+
+    @Test
+    void shouldReturnError_whenHashDoesNotMatchQuery() throws Exception {
+        execute(QUERY, sha256("query { getTopAccounts { name } }"))
+                .andExpect(jsonPath("$.errors[0].message").value("PersistedQueryIdInvalid"));
+    }
+
+    @Test
+    void shouldReuseParsedDocument_whenSameQueryIsSentAsText() throws Exception {
+        execute(QUERY, null).andExpect(jsonPath("$.data.__typename").value("Query"));
+        execute(QUERY, null).andExpect(jsonPath("$.data.__typename").value("Query"));
+
+        assertThat(documents("text", "miss")).isEqualTo(1);
+        assertThat(documents("text", "hit")).isEqualTo(1);
+    }
+
+    private ResultActions execute(String query, String hash) throws Exception {
+        Map<String, Object> body = new HashMap<>();
+        if (query != null) {
+            body.put("query", query);
+        }
+        if (hash != null) {
+            body.put(
+                    "extensions",
+                    Map.of("persistedQuery", Map.of("version", 1, "sha256Hash", hash)));
+        }
+        var result = mockMvc.perform(post("/graphql")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(body)))
+                .andReturn();
+        return mockMvc.perform(asyncDispatch(result));
+    }
+
+    private double documents(String type, String result) {
+        return meterRegistry
+                .get("graphql.documents")
+                .tag("type", type)
+                .tag("result", result)
+                .counter()
+                .count();
+    }
+
+    private static String sha256(String query) throws Exception {
+        return HexFormat.of()
+                .formatHex(MessageDigest.getInstance("SHA-256")
+                        .digest(query.getBytes(StandardCharsets.UTF_8)));
+    }
+}
@@ -5,6 +5,7 @@ import static com.budget.project.utils.TestUtils.*;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertAll;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.springframework.graphql.execution.ErrorType.BAD_REQUEST;
 import static org.springframework.graphql.execution.ErrorType.NOT_FOUND;
 
 import com.budget.project.auth.service.AuthService;
@@ -315,6 +316,29 @@ public class AccountControllerTest {
                 .expect(errorTypeEquals(NOT_FOUND));
     }
 
+    @Test
+    void shouldRejectQuery_whenNestedDeeperThanLimit() {
+        login(USER_1, authService);
+        Account account = accountService.createAccount(getAccountInput("name_1"));
+        // language=Graphql
+        String query =
+                """
+                query($hash: String!) {
+                    getAccount(hash: $hash) {
+                        parent { parent { parent { parent { parent { parent { parent { parent {
+                            parent { parent { name } }
+                        } } } } } } } }
+                    }
+                }
+                """;
+        graphQlTester
+                .document(query)
+                .variable("hash", account.getHash())
+                .execute()
+                .errors()
+                .expect(errorTypeEquals(BAD_REQUEST));
+    }
+
     //    @Test
     //    @Transactional
     //    void shouldUpdateAccountParent_whenGetProperInput() {
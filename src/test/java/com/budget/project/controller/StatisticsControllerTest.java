@@ -8,10 +8,13 @@ import static org.junit.jupiter.api.Assertions.assertAll;
 
 import com.budget.project.auth.service.AuthService;
 import com.budget.project.model.db.Account;
+import com.budget.project.model.db.Budget;
 import com.budget.project.model.db.Category;
 import com.budget.project.model.db.Transaction;
 import com.budget.project.model.dto.CategoryAmount;
+import com.budget.project.model.dto.IncomeExpense;
 import com.budget.project.service.AccountService;
+import com.budget.project.service.BudgetService;
 import com.budget.project.service.CategoryService;
 import com.budget.project.service.TransactionService;
 
@@ -28,6 +31,7 @@ import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.context.ActiveProfiles;
 
 import java.sql.SQLException;
+import java.time.LocalDate;
 import java.time.OffsetDateTime;
 import java.util.List;
 
@@ -48,6 +52,9 @@ public class StatisticsControllerTest {
     @Autowired
     private CategoryService categoryService;
 
+    @Autowired
+    private BudgetService budgetService;
+
     @Autowired
     private AuthenticationManager authenticationManager;
 
@@ -118,4 +125,238 @@ public class StatisticsControllerTest {
                                 .amount())
                         .isEqualTo(transaction4.getAmount() + transaction5.getAmount()));
     }
+
+    @Test
+    void shouldReturnIncomeExpense_whenTransactionsWereUpdatedAndDeleted() {
+        login(USER_1, authService);
+        Account account = accountService.createAccount(getAccountInput(""));
+        Category expenseCategory = categoryService.createCategory(getCategoryInput(false));
+        Category incomeCategory = categoryService.createCategory(getCategoryInput(true));
+        Transaction updated = transactionService.createTransaction(
+                getTransactionInputExpense(expenseCategory.getHash(), account.getHash()));
+        Transaction deleted = transactionService.createTransaction(
+                getTransactionInputExpense(expenseCategory.getHash(), account.getHash()));
+        transactionService.createTransaction(
+                getTransactionInputIncome(incomeCategory.getHash(), account.getHash()));
+        transactionService.updateTransaction(
+                updated.getHash(),
+                getTransactionInputExpense(expenseCategory.getHash(), account.getHash())
+                        .toBuilder()
+                        .amount(25.0)
+                        .build());
+        transactionService.deleteTransaction(deleted.getHash());
+
+        // language=Graphql
+        String query =
+                """
+                        query($date: String!) {
+                        getIncomeExpense(date: $date){
+                            income
+                            expense
+                        }
+                        }
+                        """;
+        IncomeExpense incomeExpense = graphQlTester
+                .document(query)
+                .variable("date", OffsetDateTime.now().toString())
+                .execute()
+                .path("data.getIncomeExpense")
+                .entity(IncomeExpense.class)
+                .get();
+
+        assertThat(incomeExpense).isEqualTo(new IncomeExpense(10.0, 25.0));
+    }
+
+    @Test
+    void shouldNotCountIncomeOfDeletedAccount_whenAccountWasDeleted() {
+        login(USER_1, authService);
+        Account deleted = accountService.createAccount(getAccountInput("deleted"));
+        Account kept = accountService.createAccount(getAccountInput("kept"));
+        Category expenseCategory = categoryService.createCategory(getCategoryInput(false));
+        Category incomeCategory = categoryService.createCategory(getCategoryInput(true));
+        transactionService.createTransaction(
+                getTransactionInputIncome(incomeCategory.getHash(), deleted.getHash()));
+        transactionService.createTransaction(
+                getTransactionInputExpense(expenseCategory.getHash(), kept.getHash()));
+        transactionService.createTransaction(
+                getTransactionInputTransfer(deleted.getHash(), kept.getHash()));
+
+        accountService.deleteAccount(deleted.getHash(), false);
+
+        // language=Graphql
+        String query =
+                """
+                        query($date: String!) {
+                        getIncomeExpense(date: $date){
+                            income
+                            expense
+                        }
+                        }
+                        """;
+        IncomeExpense incomeExpense = graphQlTester
+                .document(query)
+                .variable("date", OffsetDateTime.now().toString())
+                .execute()
+                .path("data.getIncomeExpense")
+                .entity(IncomeExpense.class)
+                .get();
+
+        assertAll(
+                () -> assertThat(incomeExpense).isEqualTo(new IncomeExpense(0.0, 10.0)),
+                () -> assertThat(accountService.getAccount(kept.getHash()).getBalance())
+                        .isEqualTo(kept.getBalance() - 10.0));
+    }
+
+    @Test
+    void shouldNotListCategory_whenItsTransactionsWereDeleted() {
+        login(USER_1, authService);
+        Account account = accountService.createAccount(getAccountInput(""));
+        Category emptied = categoryService.createCategory(getCategoryInput(false));
+        Category kept = categoryService.createCategory(getCategoryInput(false));
+        // 0.1 + 0.2 - 0.1 - 0.2 isn't 0 in floating point
+        Transaction first = transactionService.createTransaction(
+                getTransactionInputExpense(emptied.getHash(), account.getHash()).toBuilder()
+                        .amount(0.1)
+                        .build());
+        Transaction second = transactionService.createTransaction(
+                getTransactionInputExpense(emptied.getHash(), account.getHash()).toBuilder()
+                        .amount(0.2)
+                        .build());
+        transactionService.createTransaction(
+                getTransactionInputExpense(kept.getHash(), account.getHash()));
+
+        transactionService.deleteTransaction(first.getHash());
+        transactionService.deleteTransaction(second.getHash());
+
+        assertAll(
+                () -> assertThat(amountByCategoryNames(false)).containsExactly(kept.getName()),
+                () -> assertThat(dashboardCategoryNames("expenseByCategory"))
+                        .containsExactly(kept.getName()));
+    }
+
+    @Test
+    void shouldNotListPreviousCategory_whenTransactionWasMovedToAnother() {
+        login(USER_1, authService);
+        Account account = accountService.createAccount(getAccountInput(""));
+        Category previous = categoryService.createCategory(getCategoryInput(true));
+        Category next = categoryService.createCategory(getCategoryInput(true));
+        Transaction transaction = transactionService.createTransaction(
+                getTransactionInputIncome(previous.getHash(), account.getHash()));
+
+        transactionService.updateTransaction(
+                transaction.getHash(),
+                getTransactionInputIncome(next.getHash(), account.getHash()));
+
+        assertAll(
+                () -> assertThat(amountByCategoryNames(true)).containsExactly(next.getName()),
+                () -> assertThat(dashboardCategoryNames("incomeByCategory"))
+                        .containsExactly(next.getName()));
+    }
+
+    private List<String> amountByCategoryNames(boolean income) {
+        // language=Graphql
+        String query =
+                """
+                        query($startDate: String!, $endDate: String!, $income: Boolean!) {
+                        getAmountByCategory(
+                            startDate: $startDate, endDate: $endDate, income: $income){
+                            name
+                        }
+                        }
+                        """;
+        return graphQlTester
+                .document(query)
+                .variable("startDate", OffsetDateTime.now().minusDays(1L).toString())
+                .variable("endDate", OffsetDateTime.now().plusMinutes(1L).toString())
+                .variable("income", income)
+                .execute()
+                .path("getAmountByCategory[*].name")
+                .entityList(String.class)
+                .get();
+    }
+
+    private List<String> dashboardCategoryNames(String field) {
+        // language=Graphql
+        String query =
+                """
+                        query($date: String!) {
+                        dashboard(date: $date){
+                            expenseByCategory { name }
+                            incomeByCategory { name }
+                        }
+                        }
+                        """;
+        return graphQlTester
+                .document(query)
+                .variable("date", OffsetDateTime.now().toString())
+                .execute()
+                .path("dashboard." + field + "[*].name")
+                .entityList(String.class)
+                .get();
+    }
+
+    @Test
+    void shouldReturnDashboard_whenGetProperInput() {
+        login(USER_1, authService);
+        Account account = accountService.createAccount(getAccountInput(""));
+        Category expenseCategory = categoryService.createCategory(getCategoryInput(false));
+        Category incomeCategory = categoryService.createCategory(getCategoryInput(true));
+        transactionService.createTransaction(
+                getTransactionInputExpense(expenseCategory.getHash(), account.getHash()));
+        transactionService.createTransaction(
+                getTransactionInputExpense(expenseCategory.getHash(), account.getHash()));
+        transactionService.createTransaction(
+                getTransactionInputIncome(incomeCategory.getHash(), account.getHash()));
+        Budget budget = budgetService.createBudget(getBudgetInput(expenseCategory.getHash()));
+
+        // language=Graphql
+        String query =
+                """
+                        query($date: String!) {
+                        dashboard(date: $date){
+                            incomeExpense { income expense }
+                            expensesPerDayOfTheWeek
+                            expensesPerMonth
+                            topAccounts { name }
+                            expenseByCategory { name amount }
+                            incomeByCategory { name amount }
+                            budgets { budget { hash } percent }
+                        }
+                        }
+                        """;
+        GraphQlTester.Response response = graphQlTester
+                .document(query)
+                .variable("date", OffsetDateTime.now().toString())
+                .execute();
+
+        int dayOfWeek = LocalDate.now().getDayOfWeek().getValue() - 1;
+        int month = LocalDate.now().getMonthValue() - 1;
+        assertAll(
+                () -> assertThat(response.path("dashboard.incomeExpense")
+                                .entity(IncomeExpense.class)
+                                .get())
+                        .isEqualTo(new IncomeExpense(10.0, 20.0)),
+                () -> assertThat(response.path("dashboard.expensesPerDayOfTheWeek")
+                                .entityList(Double.class)
+                                .get()
+                                .get(dayOfWeek))
+                        .isEqualTo(20.0),
+                () -> assertThat(response.path("dashboard.expensesPerMonth")
+                                .entityList(Double.class)
+                                .get()
+                                .get(month))
+                        .isEqualTo(20.0),
+                () -> response.path("dashboard.topAccounts[0].name")
+                        .entity(String.class)
+                        .isEqualTo(account.getName()),
+                () -> response.path("dashboard.expenseByCategory[0].name")
+                        .entity(String.class)
+                        .isEqualTo(expenseCategory.getName()),
+                () -> response.path("dashboard.incomeByCategory[0].amount")
+                        .entity(Double.class)
+                        .isEqualTo(10.0),
+                () -> response.path("dashboard.budgets[0].budget.hash")
+                        .entity(String.class)
+                        .isEqualTo(budget.getHash()));
+    }
 }
@@ -13,6 +13,8 @@ import com.budget.project.model.db.Account;
 import com.budget.project.model.db.Category;
 import com.budget.project.model.db.Transaction;
 import com.budget.project.model.db.TransactionType;
+import com.budget.project.model.dto.request.input.CategoryInput;
+import com.budget.project.model.dto.request.input.SubCategoryInput;
 import com.budget.project.model.dto.request.input.TransactionInput;
 import com.budget.project.service.AccountService;
 import com.budget.project.service.CategoryService;
@@ -26,10 +28,13 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.graphql.tester.AutoConfigureGraphQlTester;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.graphql.test.tester.GraphQlTester;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.context.ActiveProfiles;
 
+import java.util.List;
+
 @AutoConfigureGraphQlTester
 @SpringBootTest
 @DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
@@ -53,6 +58,9 @@ public class TransactionControllerTest {
     @Autowired
     private CategoryService categoryService;
 
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
     @BeforeEach
     void setUp() {
         registerUsers(authService, authenticationManager);
@@ -310,6 +318,119 @@ public class TransactionControllerTest {
                         transaction_jd1.getHash()));
     }
 
+    @Test
+    void shouldReturnError_whenPageIsLargerThanLimit() {
+        login(USER_1, authService);
+        // language=GraphQL
+        String query =
+                """
+                query {
+                getTransactionsPage(page: {number: 0, size: 101}){
+                    content {
+                        hash
+                    }
+                }
+                }
+                """;
+        graphQlTester.document(query).execute().errors().expect(errorTypeEquals(BAD_REQUEST));
+    }
+
+    @Test
+    void shouldFindTransactionsByWordPrefixes_whenSearching() {
+        login(USER_1, authService);
+        Account account = accountService.createAccount(getAccountInput(""));
+        Category category = categoryService.createCategory(getCategoryInput(false));
+        TransactionInput input = getTransactionInputExpense(category.getHash(), account.getHash());
+        Transaction aquapark = transactionService.createTransaction(
+                input.toBuilder().name("Aquapark Suntago").build());
+        Transaction waterPark = transactionService.createTransaction(
+                input.toBuilder().name("Water park").note("aquapark tickets").build());
+        Transaction groceries = transactionService.createTransaction(
+                input.toBuilder().name("Groceries").note("aqua, water").build());
+
+        assertAll(
+                () -> assertThat(search("Aqua")).hasSize(3).first().isEqualTo(aquapark.getHash()),
+                () -> assertThat(search("aquapark sun")).containsExactly(aquapark.getHash()),
+                () -> assertThat(search("park")).containsExactly(waterPark.getHash()),
+                () -> assertThat(search("water aqua"))
+                        .containsExactlyInAnyOrder(waterPark.getHash(), groceries.getHash()),
+                () -> assertThat(search(" !? ")).isEmpty());
+    }
+
+    @Test
+    void shouldRejectQuery_whenCostIsOverBudget() {
+        login(USER_1, authService);
+        // 100 transactions with 10 sub accounts of 10 sub accounts each
+        // language=GraphQL
+        String query =
+                """
+                query {
+                getTransactionsPage(page: {number: 0, size: 100}){
+                    content {
+                        accountFrom { subAccounts { subAccounts { name } } }
+                    }
+                }
+                }
+                """;
+        graphQlTester.document(query).execute().errors().expect(errorTypeEquals(BAD_REQUEST));
+    }
+
+    @Test
+    void shouldReturnTransactionConnection_whenPagingWithCursor() {
+        login(USER_2, authService);
+        Account account_jd_2 = accountService.createAccount(getAccountInput(""));
+        Category category_jd_2 = categoryService.createCategory(getCategoryInput(false));
+        transactionService.createTransaction(
+                getTransactionInputExpense(category_jd_2.getHash(), account_jd_2.getHash()));
+        login(USER_1, authService);
+        Account account_jd = accountService.createAccount(getAccountInput(""));
+        Category category_jd = categoryService.createCategory(getCategoryInput(false));
+        Transaction transaction_jd1 = transactionService.createTransaction(
+                getTransactionInputExpense(category_jd.getHash(), account_jd.getHash()));
+        Transaction transaction_jd2 = transactionService.createTransaction(
+                getTransactionInputExpense(category_jd.getHash(), account_jd.getHash()));
+        Transaction transaction_jd3 = transactionService.createTransaction(
+                getTransactionInputExpense(category_jd.getHash(), account_jd.getHash()));
+
+        // language=GraphQL
+        String query =
+                """
+                query($after: String) {
+                    transactionsConnection(first: 2, after: $after) {
+                        edges {
+                            node {
+                                hash
+                            }
+                        }
+                        pageInfo {
+                            hasNextPage
+                            endCursor
+                        }
+                        totalCount
+                    }
+                }
+                """;
+        GraphQlTester.Response response = graphQlTester.document(query).execute();
+        response.path("transactionsConnection.edges[*].node.hash")
+                .entityList(String.class)
+                .containsExactly(transaction_jd3.getHash(), transaction_jd2.getHash());
+        response.path("transactionsConnection.pageInfo.hasNextPage")
+                .entity(Boolean.class)
+                .isEqualTo(true);
+        response.path("transactionsConnection.totalCount").entity(Long.class).isEqualTo(3L);
+        String endCursor = response.path("transactionsConnection.pageInfo.endCursor")
+                .entity(String.class)
+                .get();
+
+        response = graphQlTester.document(query).variable("after", endCursor).execute();
+        response.path("transactionsConnection.edges[*].node.hash")
+                .entityList(String.class)
+                .containsExactly(transaction_jd1.getHash());
+        response.path("transactionsConnection.pageInfo.hasNextPage")
+                .entity(Boolean.class)
+                .isEqualTo(false);
+    }
+
     @Test
     void shouldGetTransaction_whenGetProperRequest() {
         login(USER_1, authService);
@@ -505,4 +626,85 @@ public class TransactionControllerTest {
                         newAccountTo.getBalance() + transactionUpdateInput.amount(),
                         0.0001));
     }
+
+    @Test
+    void shouldLoadRelationsWithSameNumberOfStatements_whenGetTransactionsPageOfAnySize() {
+        login(USER_1, authService);
+        // every transaction has accounts and categories of its own, so nothing is shared
+        for (int i = 0; i < 10; i++) {
+            Account accountTo = accountService.createAccount(getAccountInput("to" + i));
+            Account accountFrom = accountService.createAccount(getAccountInput("from" + i));
+            CategoryInput categoryInput = getCategoryInput(true).toBuilder()
+                    .subCategories(List.of(new SubCategoryInput("child", null)))
+                    .build();
+            Category category = categoryService.createCategory(categoryInput);
+            transactionService.createTransaction(getTransactionInputIncome(
+                    category.getHash(),
+                    accountTo.getHash(),
+                    category.getSubCategories().iterator().next().getHash()));
+            transactionService.createTransaction(
+                    getTransactionInputTransfer(accountTo.getHash(), accountFrom.getHash()));
+        }
+
+        // the user, the page and its count, then one query per relation, the accounts have no
+        // parents to read
+        assertAll(
+                () -> assertThat(countSelects(2)).isEqualTo(9),
+                () -> assertThat(countSelects(20)).isEqualTo(9));
+    }
+
+    private List<String> search(String text) {
+        // language=GraphQL
+        String query =
+                """
+                query($query: String!) {
+                searchTransactions(query: $query, page: {number: 0, size: 10}){
+                    hash
+                }
+                }
+                """;
+        return graphQlTester
+                .document(query)
+                .variable("query", text)
+                .execute()
+                .path("data.searchTransactions[*].hash")
+                .entityList(String.class)
+                .get();
+    }
+
+    // the statistics of H2 are cleared whenever they are switched off
+    private long countSelects(int size) {
+        // language=GraphQL
+        String query =
+                """
+                query($size: Int!) {
+                getTransactionsPage(page: {number: 0, size: $size}){
+                    content {
+                        hash
+                        accountTo { name parent { name } subAccounts { name } }
+                        accountFrom { name parent { name } subAccounts { name } }
+                        category { name subCategories { name } }
+                        subCategory { name parent { name } }
+                    }
+                }
+                }
+                """;
+        jdbcTemplate.execute("SET QUERY_STATISTICS TRUE");
+        try {
+            graphQlTester
+                    .document(query)
+                    .variable("size", size)
+                    .execute()
+                    .path("data.getTransactionsPage.content")
+                    .entityList(Object.class)
+                    .hasSize(size);
+            return jdbcTemplate.queryForObject(
+                    "SELECT SUM(execution_count) FROM information_schema.query_statistics"
+                            + " WHERE LOWER(sql_statement) LIKE 'select%'"
+                            + " AND LOWER(sql_statement) NOT LIKE '%query_statistics%'",
+                    Long.class);
+        } finally {
+            jdbcTemplate.execute("SET QUERY_STATISTICS FALSE");
+        }
+    }
 }
@@ -5,9 +5,11 @@ import static com.budget.project.utils.TestUtils.USER_1;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.springframework.graphql.execution.ErrorType.BAD_REQUEST;
 
 import com.budget.project.auth.service.AuthService;
 import com.budget.project.model.db.*;
+import com.budget.project.model.dto.TransactionRow;
 import com.budget.project.model.dto.request.input.AccountInput;
 import com.budget.project.model.dto.request.input.CategoryInput;
 import com.budget.project.service.AccountService;
@@ -15,16 +17,20 @@ import com.budget.project.service.CategoryService;
 import com.budget.project.service.TransactionService;
 import com.budget.project.utils.TestUtils;
 
+import io.micrometer.core.instrument.MeterRegistry;
+
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.graphql.tester.AutoConfigureGraphQlTester;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.graphql.test.tester.GraphQlTester;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.context.ActiveProfiles;
 
+import java.time.OffsetDateTime;
 import java.util.List;
 
 @AutoConfigureGraphQlTester
@@ -51,6 +57,12 @@ public class FilterTest {
     @Autowired
     private TransactionService transactionService;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
     @BeforeEach
     void setUp() {
         registerUsers(authService, authenticationManager);
@@ -263,4 +275,298 @@ public class FilterTest {
                         .isTrue(),
                 () -> assertThat(transactions).hasSize(1));
     }
+
+    @Test
+    public void shouldReuseCompiledFilter_whenOnlyValuesDiffer() {
+        login(USER_1, authService);
+        Account account_1 = accountService.createAccount(getAccountInput("test_1"));
+        Account account_2 = accountService.createAccount(getAccountInput("test_2"));
+
+        // language=GraphQL
+        String query =
+                """
+                query($name: String!, $balance: Float!){
+                  getAccountsPage(
+                    page: {number: 0, size: 10}
+                    filter: {
+                        logicOperator: AND,
+                        stringFilters: [{field: "name", operator: EQUALS, value: $name}],
+                        doubleFilters: [{field: "balance", operator: GT, value: $balance}]
+                    }
+                  ) {
+                    content {
+                        hash
+                    }
+                  }
+                }
+                """;
+        List<String> first = getAccountHashes(query, "test_1", 0.0);
+        List<String> second = getAccountHashes(query, "test_2", 0.0);
+        List<String> none = getAccountHashes(query, "test_2", 1000.0);
+
+        assertAll(
+                () -> assertThat(first).containsExactly(account_1.getHash()),
+                () -> assertThat(second).containsExactly(account_2.getHash()),
+                () -> assertThat(none).isEmpty(),
+                () -> assertThat(plans("miss")).isEqualTo(1),
+                () -> assertThat(plans("hit")).isEqualTo(2));
+    }
+
+    @Test
+    public void shouldReturnError_whenFilterFieldIsUnknown() {
+        login(USER_1, authService);
+        accountService.createAccount(getAccountInput("test_1"));
+
+        // language=GraphQL
+        String query =
+                """
+                {
+                  getAccountsPage(
+                    page: {number: 0, size: 10}
+                    filter: {
+                        logicOperator: AND,
+                        stringFilters: [{field: "owner.name", operator: EQUALS, value: "a"}]
+                    }
+                  ) {
+                    content {
+                        hash
+                    }
+                  }
+                }
+                """;
+        graphQlTester.document(query).execute().errors().expect(errorTypeEquals(BAD_REQUEST));
+        assertThat(plans("miss")).isEqualTo(1);
+        assertThat(meterRegistry.find("filter.plans").tag("result", "hit").counter()).isNull();
+    }
+
+    @Test
+    public void shouldReturnError_whenFilterFieldJoinsNestedCollectionOrIsTooDeep() {
+        login(USER_1, authService);
+        // language=GraphQL
+        String query =
+                """
+                query($field: String!) {
+                  getTransactionsPage(
+                    page: {number: 0, size: 10}
+                    filter: {
+                        logicOperator: AND,
+                        stringFilters: [{field: $field, operator: EQUALS, value: "a"}]
+                    }
+                  ) {
+                    content {
+                        hash
+                    }
+                  }
+                }
+                """;
+
+        for (String field : List.of(
+                "category.transactions.name", "subCategory.parent.transactions.name")) {
+            graphQlTester
+                    .document(query)
+                    .variable("field", field)
+                    .execute()
+                    .errors()
+                    .expect(errorTypeEquals(BAD_REQUEST));
+        }
+    }
+
+    @Test
+    public void shouldJoinEveryAssociationOnce_whenManyExpressionsReadIt() {
+        login(USER_1, authService);
+        Account account = accountService.createAccount(getAccountInput("test_1"));
+        Category category = categoryService.createCategory(CategoryInput.builder()
+                .name("name_category")
+                .income(true)
+                .subCategories(List.of())
+                .color("434")
+                .build());
+        Transaction transaction = transactionService.createTransaction(
+                TestUtils.getTransactionInputIncome(category.getHash(), account.getHash()));
+
+        // language=GraphQL
+        String query =
+                """
+                query($hash: String!){
+                  getTransactionsPage(
+                    page: {number: 0, size: 10}
+                    filter: {
+                        logicOperator: AND,
+                        subFilters: [
+                            {
+                            logicOperator: AND,
+                            stringFilters: [
+                                {field: "category.hash", operator: EQUALS, value: $hash},
+                                {field: "category.name", operator: CONTAINS, value: "category"}
+                            ],
+                            booleanFilters: [{field: "category.income", value: true}]
+                            },
+                            {
+                            logicOperator: OR,
+                            stringFilters: [
+                                {field: "accountTo.name", operator: EQUALS, value: "test_1"},
+                                {field: "subCategory.parent.name", operator: EQUALS, value: "a"},
+                                {field: "subCategory.name", operator: EQUALS, value: "a"}
+                            ]
+                            }
+                        ]
+                    }
+                  ) {
+                    content {
+                        hash
+                    }
+                  }
+                }
+                """;
+        jdbcTemplate.execute("SET QUERY_STATISTICS TRUE");
+        List<String> statements;
+        List<String> hashes;
+        try {
+            hashes = graphQlTester
+                    .document(query)
+                    .variable("hash", category.getHash())
+                    .execute()
+                    .path("data.getTransactionsPage.content[*].hash")
+                    .entityList(String.class)
+                    .get();
+            statements = jdbcTemplate.queryForList(
+                    "SELECT sql_statement FROM information_schema.query_statistics"
+                            + " WHERE LOWER(sql_statement) LIKE 'select%from transaction%'",
+                    String.class);
+        } finally {
+            jdbcTemplate.execute("SET QUERY_STATISTICS FALSE");
+        }
+
+        // category, accountTo, subCategory and its parent
+        assertAll(
+                () -> assertThat(hashes).containsExactly(transaction.getHash()),
+                () -> assertThat(statements).isNotEmpty().allSatisfy(sql -> assertThat(
+                                sql.toLowerCase().split("\\bjoin\\b"))
+                        .hasSize(5)));
+    }
+
+    @Test
+    public void shouldReadSameTransactionsAsCriteria_whenFilteringRowsWithSql() {
+        login(USER_1, authService);
+        Account account = accountService.createAccount(getAccountInput("test_1"));
+        Category category = categoryService.createCategory(getCategoryInput(true));
+        Category otherCategory = categoryService.createCategory(getCategoryInput(true));
+        Transaction transaction = transactionService.createTransaction(
+                TestUtils.getTransactionInputIncome(category.getHash(), account.getHash()));
+        transactionService.createTransaction(
+                TestUtils.getTransactionInputIncome(otherCategory.getHash(), account.getHash()));
+        String filter =
+                """
+                {
+                    logicOperator: AND,
+                    subFilters: [
+                        {
+                        logicOperator: OR,
+                        stringFilters: [
+                            {field: "category.hash", operator: EQUALS, value: $hash},
+                            {field: "note", operator: CONTAINS, value: "not_exists"}
+                        ]
+                        },
+                        {
+                        logicOperator: AND,
+                        doubleFilters: [{field: "amount", operator: GTE, value: 10.0}],
+                        dateFilters: [{field: "date", operator: BETWEEN, values: [$start, $end]}],
+                        transactionTypeFilters: [{field: "transactionType", value: INCOME}]
+                        }
+                    ]
+                }
+                """;
+
+        // language=GraphQL
+        String rowsQuery =
+                """
+                query($hash: String!, $start: String!, $end: String!){
+                  getTransactionRows(page: {number: 0, size: 10}, filter: %s) {
+                    hash
+                    categoryName
+                    accountToName
+                  }
+                }
+                """
+                        .formatted(filter);
+        // language=GraphQL
+        String pageQuery =
+                """
+                query($hash: String!, $start: String!, $end: String!){
+                  getTransactionsPage(page: {number: 0, size: 10}, filter: %s) {
+                    content {
+                        hash
+                    }
+                  }
+                }
+                """
+                        .formatted(filter);
+        OffsetDateTime now = OffsetDateTime.now();
+        List<TransactionRow> rows = graphQlTester
+                .document(rowsQuery)
+                .variable("hash", category.getHash())
+                .variable("start", now.minusDays(1).toString())
+                .variable("end", now.plusDays(1).toString())
+                .execute()
+                .path("data.getTransactionRows")
+                .entityList(TransactionRow.class)
+                .get();
+        List<String> hashes = graphQlTester
+                .document(pageQuery)
+                .variable("hash", category.getHash())
+                .variable("start", now.minusDays(1).toString())
+                .variable("end", now.plusDays(1).toString())
+                .execute()
+                .path("data.getTransactionsPage.content[*].hash")
+                .entityList(String.class)
+                .get();
+
+        assertAll(
+                () -> assertThat(rows).extracting(TransactionRow::hash).isEqualTo(hashes),
+                () -> assertThat(hashes).containsExactly(transaction.getHash()),
+                () -> assertThat(rows.get(0).categoryName()).isEqualTo(category.getName()),
+                () -> assertThat(rows.get(0).accountToName()).isEqualTo(account.getName()));
+    }
+
+    @Test
+    public void shouldReturnError_whenRowFilterFieldIsNotAllowed() {
+        login(USER_1, authService);
+
+        // language=GraphQL
+        String query =
+                """
+                {
+                  getTransactionRows(
+                    page: {number: 0, size: 10}
+                    filter: {
+                        logicOperator: AND,
+                        stringFilters: [{field: "owner.password", operator: EQUALS, value: "a"}]
+                    }
+                  ) {
+                    hash
+                  }
+                }
+                """;
+        graphQlTester.document(query).execute().errors().expect(errorTypeEquals(BAD_REQUEST));
+    }
+
+    private List<String> getAccountHashes(String query, String name, Double balance) {
+        return graphQlTester
+                .document(query)
+                .variable("name", name)
+                .variable("balance", balance)
+                .execute()
+                .path("data.getAccountsPage.content[*].hash")
+                .entityList(String.class)
+                .get();
+    }
+
+    private double plans(String result) {
+        return meterRegistry
+                .get("filter.plans")
+                .tag("entity", "Account")
+                .tag("result", result)
+                .counter()
+                .count();
+    }
 }
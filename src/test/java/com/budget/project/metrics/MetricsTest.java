@@ -0,0 +1,225 @@
+package com.budget.project.metrics;
+
+import static com.budget.project.utils.TestUtils.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.budget.project.auth.model.dto.AuthInput;
+import com.budget.project.auth.service.AuthService;
+import com.budget.project.model.db.Account;
+import com.budget.project.model.db.Category;
+import com.budget.project.model.db.Role;
+import com.budget.project.model.db.User;
+import com.budget.project.service.AccountService;
+import com.budget.project.service.CategoryService;
+import com.budget.project.service.TransactionService;
+import com.budget.project.service.repository.UserRepository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.graphql.tester.AutoConfigureGraphQlTester;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.graphql.test.tester.GraphQlTester;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+@AutoConfigureGraphQlTester
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+@SpringBootTest
+@ActiveProfiles("test")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
+class MetricsTest {
+    @Autowired
+    private GraphQlTester graphQlTester;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private AuthenticationManager authenticationManager;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @BeforeEach
+    void setUp() {
+        registerUsers(authService, authenticationManager);
+    }
+
+    @Test
+    void shouldRecordOperationMetrics_andExposeThemForPrometheus() throws Exception {
+        User admin = userRepository.findByEmail(USER_2).orElseThrow();
+        admin.setRole(Role.ADMIN);
+        userRepository.save(admin);
+        String adminJwt = authService.authenticate(new AuthInput(USER_2, "123")).jwt();
+        String userJwt = authService.authenticate(new AuthInput(USER_1, "123")).jwt();
+        Account account = accountService.createAccount(getAccountInput("metrics"));
+        Category category = categoryService.createCategory(getCategoryInput(false));
+        transactionService.createTransaction(
+                getTransactionInputExpense(category.getHash(), account.getHash()));
+        // language=GraphQL
+        String query =
+                """
+                query {
+                    getAccounts {
+                        name
+                    }
+                }
+                """;
+
+        graphQlTester
+                .document(query)
+                .execute()
+                .path("getAccounts")
+                .entityList(Object.class)
+                .hasSize(1);
+
+        assertAll(
+                () -> assertThat(meterRegistry
+                                .get("graphql.datafetcher")
+                                .tag("graphql.field.name", "getAccounts")
+                                .timer()
+                                .count())
+                        .isEqualTo(1),
+                () -> assertThat(meterRegistry
+                                .get("jdbc.statements")
+                                .tag("operation", "getAccounts")
+                                .counter()
+                                .count())
+                        .isPositive(),
+                () -> assertThat(meterRegistry
+                                .get("jdbc.statements.per.operation")
+                                .tag("operation", "getAccounts")
+                                .summary()
+                                .count())
+                        .isEqualTo(1),
+                () -> assertThat(meterRegistry
+                                .get("graphql.operation.cost")
+                                .tag("operation", "getAccounts")
+                                .summary()
+                                .totalAmount())
+                        .isEqualTo(10),
+                () -> assertThat(meterRegistry
+                                .get("service.method")
+                                .tag("method", "createTransaction")
+                                .timer()
+                                .count())
+                        .isEqualTo(1));
+
+        mockMvc.perform(get("/actuator/prometheus")).andExpect(status().isForbidden());
+        mockMvc.perform(get("/actuator/prometheus").header("Authorization", "Bearer " + userJwt))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(get("/actuator/prometheus").header("Authorization", "Bearer " + adminJwt))
+                .andExpect(status().isOk())
+                .andExpect(content().string(Matchers.containsString("jdbc_statements_total")));
+    }
+
+    @Test
+    void shouldNameOperationAfterDistinctRootFields_whenAliasedReorderedOrInFragments() {
+        login(USER_1, authService);
+        // language=GraphQL
+        String aliased =
+                """
+                query {
+                    b: getCategories { name }
+                    a: getAccounts { name }
+                    c: getAccounts { name }
+                }
+                """;
+        // language=GraphQL
+        String fragment =
+                """
+                query {
+                    ...Root
+                }
+                fragment Root on Query {
+                    getAccounts { name }
+                    getCategories { name }
+                }
+                """;
+        // language=GraphQL
+        String many =
+                """
+                query {
+                    getAccounts { name }
+                    getCategories { name }
+                    getTopAccounts { name }
+                }
+                """;
+
+        graphQlTester.document(aliased).execute();
+        graphQlTester.document(fragment).execute();
+        graphQlTester.document(many).execute();
+
+        assertAll(
+                () -> assertThat(meterRegistry
+                                .get("jdbc.statements.per.operation")
+                                .tag("operation", "getAccounts,getCategories")
+                                .summary()
+                                .count())
+                        .isEqualTo(2),
+                () -> assertThat(meterRegistry
+                                .get("jdbc.statements.per.operation")
+                                .tag("operation", "multiple")
+                                .summary()
+                                .count())
+                        .isEqualTo(1),
+                () -> assertThat(meterRegistry
+                                .find("jdbc.statements.per.operation")
+                                .summaries())
+                        .extracting(summary -> summary.getId().getTag("operation"))
+                        .doesNotContain("", "getCategories,getAccounts,getAccounts"));
+    }
+
+    @Test
+    void shouldCountRejectedOperation_withoutRecordingItsCost() {
+        login(USER_1, authService);
+        // every alias reads a list of accounts, together they are over the cost limit
+        StringBuilder query = new StringBuilder("query {");
+        for (int i = 0; i < 600; i++) {
+            query.append(" a").append(i).append(": getAccounts { name }");
+        }
+        query.append(" }");
+
+        graphQlTester.document(query.toString()).execute().errors().expect(error -> true);
+
+        assertAll(
+                () -> assertThat(meterRegistry
+                                .get("graphql.operation.rejected")
+                                .tag("operation", "getAccounts")
+                                .tag("reason", "cost")
+                                .counter()
+                                .count())
+                        .isEqualTo(1),
+                () -> assertThat(meterRegistry.find("graphql.operation.cost").summaries())
+                        .isEmpty());
+    }
+}
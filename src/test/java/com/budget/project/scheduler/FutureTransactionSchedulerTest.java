@@ -0,0 +1,87 @@
+package com.budget.project.scheduler;
+
+import static com.budget.project.utils.TestUtils.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.budget.project.auth.service.AuthService;
+import com.budget.project.model.db.Account;
+import com.budget.project.model.db.Category;
+import com.budget.project.model.db.Transaction;
+import com.budget.project.service.AccountService;
+import com.budget.project.service.CategoryService;
+import com.budget.project.service.TransactionService;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+@SpringBootTest(properties = "scheduler.future.page-size=2")
+@ActiveProfiles("test")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
+class FutureTransactionSchedulerTest {
+    @Autowired
+    private FutureTransactionScheduler futureTransactionScheduler;
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private AuthenticationManager authenticationManager;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @BeforeEach
+    void setUp() {
+        registerUsers(authService, authenticationManager);
+    }
+
+    @Test
+    void settle_shouldApplyOnlyDueTransactions_andBeSafeToRerun() {
+        login(USER_1, authService);
+        Account account = accountService.createAccount(getAccountInput("future"));
+        Category category = categoryService.createCategory(getCategoryInput(false));
+        List<Transaction> transactions = new ArrayList<>();
+        for (int days = 1; days <= 5; days++) {
+            transactions.add(transactionService.createTransaction(
+                    getTransactionInputExpense(category.getHash(), account.getHash())
+                            .toBuilder()
+                            .date(OffsetDateTime.now().plusDays(days).toString())
+                            .build()));
+        }
+        Double balance = accountService.getAccount(account.getHash()).getBalance();
+
+        LocalDateTime date = LocalDateTime.now().plusDays(3).plusHours(1);
+        long settled = futureTransactionScheduler.settle(date);
+        long settledAgain = futureTransactionScheduler.settle(date);
+
+        assertAll(
+                () -> assertThat(settled).isEqualTo(3),
+                () -> assertThat(settledAgain).isZero(),
+                () -> assertThat(accountService.getAccount(account.getHash()).getBalance())
+                        .isCloseTo(balance - 30.0, within(0.0001)),
+                () -> assertThat(transactions)
+                        .extracting(transaction -> transactionService
+                                .getTransaction(transaction.getHash())
+                                .getFuture())
+                        .containsExactly(false, false, false, true, true));
+    }
+}
@@ -0,0 +1,47 @@
+package com.budget.project.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.budget.project.model.db.Role;
+import com.budget.project.model.db.User;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.HashMap;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class JwtServiceTest {
+    @Autowired
+    private JwtService jwtService;
+
+    @Test
+    void shouldExtractPrincipal_whenTokenHasUserClaims() {
+        User user = User.builder()
+                .id(7L)
+                .email("jd")
+                .hash("user-hash")
+                .role(Role.USER)
+                .build();
+
+        String jwt = jwtService.generateToken(user);
+
+        assertThat(jwtService.extractPrincipal(jwt))
+                .contains(new JwtPrincipal(7L, "jd", "user-hash", Role.USER));
+    }
+
+    @Test
+    void shouldNotExtractPrincipal_whenTokenHasNoUserClaims() {
+        User user = User.builder().email("jd").role(Role.USER).build();
+
+        String jwt = jwtService.generateToken(new HashMap<>(), user);
+
+        assertAll(
+                () -> assertThat(jwtService.extractPrincipal(jwt)).isEmpty(),
+                () -> assertThat(jwtService.extractUsername(jwt)).isEqualTo("jd"));
+    }
+}
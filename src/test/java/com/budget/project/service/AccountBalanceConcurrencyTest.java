@@ -0,0 +1,84 @@
+package com.budget.project.service;
+
+import static com.budget.project.utils.TestUtils.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import com.budget.project.auth.service.AuthService;
+import com.budget.project.model.db.Account;
+import com.budget.project.model.db.Category;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
+class AccountBalanceConcurrencyTest {
+    private static final int THREADS = 16;
+    private static final int MUTATIONS = 1000;
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private AuthenticationManager authenticationManager;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @BeforeEach
+    void setUp() {
+        registerUsers(authService, authenticationManager);
+    }
+
+    @Test
+    void shouldNotLoseBalanceUpdates_whenTransactionsAreCreatedConcurrently() throws Exception {
+        login(USER_1, authService);
+        Account account = accountService.createAccount(getAccountInput("concurrent"));
+        Category category = categoryService.createCategory(getCategoryInput(false));
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < MUTATIONS; i++) {
+            futures.add(executor.submit(() -> {
+                SecurityContextHolder.getContext().setAuthentication(authentication);
+                try {
+                    transactionService.createTransaction(
+                            getTransactionInputExpense(category.getHash(), account.getHash()));
+                } finally {
+                    SecurityContextHolder.clearContext();
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        double expectedBalance = account.getBalance() - MUTATIONS * 10.0;
+        assertThat(accountService.getAccount(account.getHash()).getBalance())
+                .isCloseTo(expectedBalance, within(0.0001));
+    }
+}
@@ -0,0 +1,124 @@
+package com.budget.project.service;
+
+import static com.budget.project.utils.TestUtils.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.budget.project.auth.service.AuthService;
+import com.budget.project.model.db.ImportJob;
+import com.budget.project.model.db.ImportJobStatus;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
+class ImportJobServiceTest {
+    private static final Set<ImportJobStatus> FINISHED =
+            Set.of(ImportJobStatus.COMPLETED, ImportJobStatus.FAILED);
+
+    @Autowired
+    private ImportJobService importJobService;
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private AuthenticationManager authenticationManager;
+
+    @BeforeEach
+    void setUp() {
+        registerUsers(authService, authenticationManager);
+    }
+
+    @Test
+    void submit_shouldImportFileInBackground() throws Exception {
+        login(USER_1, authService);
+        InputStream is = getClass().getClassLoader().getResourceAsStream("import/test.csv");
+        ImportJob job = importJobService.submit(
+                new MockMultipartFile("file", "test.csv", null, is), CsvImportFormat.NAME);
+
+        ImportJob finished = awaitJob(job.getHash());
+
+        assertAll(
+                () -> assertThat(finished.getStatus()).isEqualTo(ImportJobStatus.COMPLETED),
+                () -> assertThat(finished.getRowsProcessed()).isEqualTo(6),
+                () -> assertThat(finished.getRowsFailed()).isZero(),
+                () -> assertThat(finished.getThroughput()).isPositive(),
+                () -> assertThat(accountService
+                                .getAccountByName("Santander")
+                                .get()
+                                .getBalance())
+                        .isCloseTo(-24.24, within(0.0001)));
+    }
+
+    @Test
+    void submit_shouldSkipAndCountBadRows() throws Exception {
+        login(USER_1, authService);
+        String csv = """
+                "DATE","TYPE",FROM,TO,"AMOUNT","NOTE",NEED
+                "21/02/2022","EXPENSE",Santander,Grocery,12.12,note,true
+                "21/02/2022","UNKNOWN",Santander,Grocery,12.12,note,true
+                "21/02/2022","EXPENSE",Santander,Grocery,not a number,note,true
+                """;
+        ImportJob job = importJobService.submit(
+                new MockMultipartFile(
+                        "file", "bad.csv", null, csv.getBytes(StandardCharsets.UTF_8)),
+                CsvImportFormat.NAME);
+
+        ImportJob finished = awaitJob(job.getHash());
+
+        assertAll(
+                () -> assertThat(finished.getStatus()).isEqualTo(ImportJobStatus.COMPLETED),
+                () -> assertThat(finished.getRowsProcessed()).isEqualTo(1),
+                () -> assertThat(finished.getRowsFailed()).isEqualTo(2));
+    }
+
+    @Test
+    void submit_shouldNotExposeDatabaseError_whenImportFails() throws Exception {
+        login(USER_1, authService);
+        // the note column is 255 characters long
+        String csv = """
+                DATE,TYPE,FROM,TO,AMOUNT,NOTE,NEED
+                21/02/2022,EXPENSE,Santander,Grocery,12.12,%s,true
+                """.formatted("n".repeat(300));
+        ImportJob job = importJobService.submit(
+                new MockMultipartFile(
+                        "file", "long.csv", null, csv.getBytes(StandardCharsets.UTF_8)),
+                CsvImportFormat.NAME);
+
+        ImportJob finished = awaitJob(job.getHash());
+
+        assertAll(
+                () -> assertThat(finished.getStatus()).isEqualTo(ImportJobStatus.FAILED),
+                () -> assertThat(finished.getError()).isEqualTo(ImportJobService.IMPORT_FAILED));
+    }
+
+    private ImportJob awaitJob(String hash) throws InterruptedException {
+        for (int i = 0; i < 100; i++) {
+            ImportJob job = importJobService.getImportJob(hash);
+            if (FINISHED.contains(job.getStatus())) {
+                return job;
+            }
+            Thread.sleep(100);
+        }
+        throw new AssertionError("import job did not finish");
+    }
+}
@@ -3,6 +3,7 @@ package com.budget.project.service;
 import static com.budget.project.utils.TestUtils.*;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
 import static org.junit.jupiter.api.Assertions.*;
 
 import com.budget.project.auth.service.AuthService;
@@ -72,6 +73,32 @@ class ImportServiceTest {
                         .isEqualTo(1));
     }
 
+    @Test
+    @Transactional
+    void importCSV_shouldApplyBalancePerAccount() throws IOException {
+        login(USER_1, authService);
+        InputStream is = getClass().getClassLoader().getResourceAsStream("import/test.csv");
+        MultipartFile file = new MockMultipartFile("test.csv", is);
+        importService.importCSV(file);
+
+        assertAll(
+                () -> assertThat(accountService
+                                .getAccountByName("Santander")
+                                .get()
+                                .getBalance())
+                        .isCloseTo(-24.24, within(0.0001)),
+                () -> assertThat(accountService
+                                .getAccountByName("mBank")
+                                .get()
+                                .getBalance())
+                        .isCloseTo(12.12, within(0.0001)),
+                () -> assertThat(accountService
+                                .getAccountByName("alior")
+                                .get()
+                                .getBalance())
+                        .isCloseTo(12.12, within(0.0001)));
+    }
+
     @Test
     @Transactional
     void importOneMoneyCSV() throws IOException {
@@ -0,0 +1,115 @@
+package com.budget.project.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.budget.project.model.dto.ImportRecord;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+class RecordBlockReaderTest {
+    private final CsvImportFormat format = new CsvImportFormat();
+
+    @Test
+    void shouldKeepFileOrder_whenRecordsSpanManyBlocks() throws IOException {
+        int rows = RecordBlockReader.BLOCK_SIZE * 5 + 3;
+        StringBuilder csv = new StringBuilder("DATE,TYPE,FROM,TO,AMOUNT,NOTE,NEED\n");
+        for (int i = 0; i < rows; i++) {
+            // every third note has a line break inside quotes
+            String note = i % 3 == 0 ? "\"line\nbreak " + i + "\"" : "note " + i;
+            csv.append("21/02/2022,EXPENSE,Santander,Grocery,").append(i).append(',')
+                    .append(note).append(",true\n");
+        }
+
+        List<ImportRecord> records = readAll(csv.toString(), ImportProgress.NONE);
+
+        assertThat(records).hasSize(rows);
+        for (int i = 0; i < rows; i++) {
+            assertThat(records.get(i).amount()).isEqualTo((double) i);
+        }
+        assertThat(records.get(3).note()).isEqualTo("line\nbreak 3");
+    }
+
+    @Test
+    void shouldKeepQuotedLineBreaks_whenUnquotedFieldHasStrayQuote() throws IOException {
+        int rows = RecordBlockReader.BLOCK_SIZE + 2;
+        StringBuilder csv = new StringBuilder("DATE,TYPE,FROM,TO,AMOUNT,NOTE,NEED\n");
+        for (int i = 0; i < rows; i++) {
+            String type = i == rows - 1 ? "UNKNOWN" : "EXPENSE";
+            // the last record of the first block has a quote inside an unquoted field, the first
+            // record of the next block has a line break inside a quoted value
+            String note = switch (i) {
+                case RecordBlockReader.BLOCK_SIZE - 1 -> "5\" screen";
+                case RecordBlockReader.BLOCK_SIZE -> "\"12\"\" line\nbreak\"";
+                default -> "note " + i;
+            };
+            csv.append("21/02/2022,").append(type).append(",Santander,Grocery,").append(i)
+                    .append(',').append(note).append(",true\n");
+        }
+        List<Long> failedRows = new ArrayList<>();
+
+        List<ImportRecord> records = readAll(csv.toString(), new ImportProgress() {
+            @Override
+            public void rowFailed(long row, RuntimeException ex) {
+                failedRows.add(row);
+            }
+        });
+
+        assertThat(records).hasSize(rows - 1);
+        for (int i = 0; i < rows - 1; i++) {
+            assertThat(records.get(i).amount()).isEqualTo((double) i);
+        }
+        assertThat(records.get(RecordBlockReader.BLOCK_SIZE - 1).note()).isEqualTo("5\" screen");
+        assertThat(records.get(RecordBlockReader.BLOCK_SIZE).note())
+                .isEqualTo("12\" line\nbreak");
+        assertThat(failedRows).containsExactly((long) rows);
+    }
+
+    @Test
+    void shouldReportFailedRowsInOrder() throws IOException {
+        String csv = """
+                DATE,TYPE,FROM,TO,AMOUNT,NOTE,NEED
+                21/02/2022,EXPENSE,Santander,Grocery,1,note,true
+                21/02/2022,UNKNOWN,Santander,Grocery,2,note,true
+                21/02/2022,EXPENSE,Santander,Grocery,3,note,true
+                bad date,EXPENSE,Santander,Grocery,4,note,true""";
+        List<Long> failedRows = new ArrayList<>();
+
+        List<ImportRecord> records = readAll(csv, new ImportProgress() {
+            @Override
+            public void rowFailed(long row, RuntimeException ex) {
+                failedRows.add(row);
+            }
+        });
+
+        assertThat(records).extracting(ImportRecord::amount).containsExactly(1D, 3D);
+        assertThat(failedRows).containsExactly(2L, 4L);
+    }
+
+    @Test
+    void shouldFailImport_whenRowFailsWithoutHandler() {
+        String csv = """
+                DATE,TYPE,FROM,TO,AMOUNT,NOTE,NEED
+                21/02/2022,UNKNOWN,Santander,Grocery,1,note,true
+                """;
+
+        assertThatThrownBy(() -> readAll(csv, ImportProgress.NONE))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private List<ImportRecord> readAll(String csv, ImportProgress progress) throws IOException {
+        InputStream inputStream = new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8));
+        List<ImportRecord> records = new ArrayList<>();
+        try (RecordBlockReader reader = new RecordBlockReader(inputStream, format, progress)) {
+            reader.forEachRemaining(records::add);
+        }
+        return records;
+    }
+}
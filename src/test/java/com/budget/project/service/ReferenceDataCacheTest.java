@@ -0,0 +1,152 @@
+package com.budget.project.service;
+
+import static com.budget.project.utils.TestUtils.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assertions.assertAll;
+
+import com.budget.project.auth.service.AuthService;
+import com.budget.project.exception.AppException;
+import com.budget.project.model.db.Account;
+import com.budget.project.model.db.Category;
+import com.budget.project.model.db.User;
+import com.budget.project.model.dto.request.input.CategoryUpdateInput;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+import jakarta.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+@SpringBootTest
+@AutoConfigureObservability
+@ActiveProfiles("test")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
+class ReferenceDataCacheTest {
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private AuthenticationManager authenticationManager;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        registerUsers(authService, authenticationManager);
+    }
+
+    @Test
+    void shouldReadCategoryAndAccountByHashFromCache_whenLookedUpAgain() {
+        login(USER_1, authService);
+        Account account = accountService.createAccount(getAccountInput("cached"));
+        Category category = categoryService.createCategory(getCategoryInput(false));
+        accountService.getAccount(account.getHash());
+        categoryService.getCategory(category.getHash());
+        Statistics statistics =
+                entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        for (int i = 0; i < 3; i++) {
+            accountService.getAccount(account.getHash());
+            categoryService.getCategory(category.getHash());
+        }
+
+        assertAll(
+                () -> assertThat(statistics.getNaturalIdQueryExecutionCount()).isZero(),
+                () -> assertThat(statistics
+                                .getEntityStatistics(Account.class.getName())
+                                .getFetchCount())
+                        .isZero(),
+                () -> assertThat(statistics
+                                .getEntityStatistics(Category.class.getName())
+                                .getFetchCount())
+                        .isZero(),
+                () -> assertThat(statistics
+                                .getCollectionStatistics(User.class.getName() + ".categories")
+                                .getFetchCount())
+                        .isZero(),
+                () -> assertThat(meterRegistry
+                                .get("hibernate.second.level.cache.requests")
+                                .tag("region", "category")
+                                .tag("result", "hit")
+                                .functionCounter()
+                                .count())
+                        .isGreaterThanOrEqualTo(3),
+                () -> assertThat(meterRegistry
+                                .get("hibernate.cache.natural.id.requests")
+                                .tag("result", "hit")
+                                .functionCounter()
+                                .count())
+                        .isGreaterThanOrEqualTo(6));
+    }
+
+    @Test
+    void shouldReadChangedData_whenCachedCategoryAndAccountChange() {
+        login(USER_1, authService);
+        Account account = accountService.createAccount(getAccountInput("cached"));
+        Category category = categoryService.createCategory(getCategoryInput(false));
+        Category other = categoryService.createCategory(getCategoryInput(false));
+        accountService.getAccount(account.getHash());
+        categoryService.getCategory(category.getHash());
+
+        transactionService.createTransaction(
+                getTransactionInputExpense(category.getHash(), account.getHash()));
+        categoryService.updateCategory(
+                category.getHash(), new CategoryUpdateInput("renamed", "33", false, List.of()));
+        categoryService.deleteCategory(other.getHash());
+
+        assertAll(
+                () -> assertThat(accountService.getAccount(account.getHash()).getBalance())
+                        .isEqualTo(account.getBalance() - 10.0),
+                () -> assertThat(categoryService.getCategory(category.getHash()).getName())
+                        .isEqualTo("renamed"),
+                () -> assertThatThrownBy(() -> categoryService.getCategory(other.getHash()))
+                        .isInstanceOfSatisfying(AppException.class, ex -> assertThat(
+                                        ex.getStatus())
+                                .isEqualTo(HttpStatus.NOT_FOUND)));
+    }
+
+    @Test
+    void shouldNotFindCachedCategoryAndAccount_whenUserDoesNotOwnThem() {
+        login(USER_1, authService);
+        Account account = accountService.createAccount(getAccountInput("cached"));
+        Category category = categoryService.createCategory(getCategoryInput(false));
+        accountService.getAccount(account.getHash());
+        categoryService.getCategory(category.getHash());
+
+        login(USER_2, authService);
+
+        assertAll(
+                () -> assertThatThrownBy(() -> accountService.getAccount(account.getHash()))
+                        .isInstanceOf(AppException.class),
+                () -> assertThatThrownBy(() -> categoryService.getCategory(category.getHash()))
+                        .isInstanceOf(AppException.class));
+    }
+}
@@ -0,0 +1,75 @@
+package com.budget.project.service;
+
+import static com.budget.project.utils.TestUtils.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.budget.project.auth.service.AuthService;
+import com.budget.project.model.db.User;
+
+import jakarta.transaction.Transactional;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
+class UserServiceTest {
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private AuthenticationManager authenticationManager;
+
+    @BeforeEach
+    void setUp() {
+        registerUsers(authService, authenticationManager);
+        RequestContextHolder.setRequestAttributes(
+                new ServletRequestAttributes(new MockHttpServletRequest()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    @Transactional
+    void shouldReuseLoggedUser_whenCalledTwiceInOneRequest() {
+        login(USER_1, authService);
+        long avoidedLookups = userService.getAvoidedLookups();
+
+        User first = userService.getLoggedUser();
+        User second = userService.getLoggedUser();
+
+        assertAll(
+                () -> assertThat(second).isSameAs(first),
+                () -> assertThat(userService.getAvoidedLookups()).isEqualTo(avoidedLookups + 1));
+    }
+
+    @Test
+    void shouldLookupUserAgain_whenLoggedUserChanges() {
+        login(USER_1, authService);
+        User first = userService.getLoggedUser();
+        login(USER_2, authService);
+        User second = userService.getLoggedUser();
+
+        assertAll(
+                () -> assertThat(first.getEmail()).isEqualTo(USER_1),
+                () -> assertThat(second.getEmail()).isEqualTo(USER_2));
+    }
+}
@@ -0,0 +1,250 @@
+package com.budget.project.service.repository;
+
+import static com.budget.project.utils.TestUtils.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.budget.project.auth.service.AuthService;
+import com.budget.project.model.db.Account;
+import com.budget.project.model.db.Category;
+import com.budget.project.model.db.TransactionType;
+import com.budget.project.model.db.User;
+import com.budget.project.service.AccountService;
+import com.budget.project.service.CategoryService;
+import com.budget.project.service.UserService;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+
+/**
+ * Runs every repository query once, takes the SQL Hibernate sent from the H2 query statistics
+ * and checks its {@code EXPLAIN} plan uses the index from the migrations.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
+class QueryPlanTest {
+    private static final LocalDateTime END = LocalDateTime.now();
+    private static final LocalDateTime START = END.minusMonths(1);
+    private static final LocalDate END_DAY = END.toLocalDate();
+    private static final LocalDate START_DAY = START.toLocalDate();
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private AuthenticationManager authenticationManager;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private DailyTotalRepository dailyTotalRepository;
+
+    @Autowired
+    private BudgetRepository budgetRepository;
+
+    @Autowired
+    private PlannedIncomeRepository plannedIncomeRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        registerUsers(authService, authenticationManager);
+        login(USER_1, authService);
+        user = userService.getLoggedUser();
+        Account account = accountService.createAccount(getAccountInput("plan"));
+        Category category = categoryService.createCategory(getCategoryInput(false));
+        seed(account, category);
+    }
+
+    @Test
+    void shouldUseOwnerIndex_whenReadingTransactionsOfUser() {
+        // H2 also indexes the owner foreign key on its own, any index led by owner_id will do
+        assertPlans(
+                () -> transactionRepository.findTransactionsForUser(
+                        user, PageRequest.of(0, 10, Sort.by("date").descending())),
+                "transaction",
+                "transaction_owner_");
+        assertPlans(
+                () -> transactionRepository.findByHashForUser("hash", user),
+                "transaction",
+                "transaction_hash_key");
+    }
+
+    @Test
+    void shouldUseIndexes_whenComputingBudgets() {
+        assertPlans(
+                () -> budgetRepository.findCategoriesWithBudgetAndSum(
+                        user, YearMonth.now(), START_DAY, END_DAY),
+                "category",
+                "user_category_user_idx");
+    }
+
+    @Test
+    void shouldUsePrimaryKey_whenComputingStatistics() {
+        // the primary key of H2 carries a generated name
+        assertPlans(
+                () -> dailyTotalRepository.sumAmount(
+                        user.getId(), TransactionType.EXPENSE, START_DAY, END_DAY),
+                "daily_total",
+                "PRIMARY_KEY_");
+        assertPlans(
+                () -> dailyTotalRepository.getExpensesPerDay(user.getId(), START_DAY, END_DAY),
+                "daily_total",
+                "PRIMARY_KEY_");
+        assertPlans(
+                () -> dailyTotalRepository.getExpensesPerMonth(user.getId(), START_DAY, END_DAY),
+                "daily_total",
+                "PRIMARY_KEY_");
+        assertPlans(
+                () -> dailyTotalRepository.sumAmountForCategoriesName(
+                        user.getId(), false, START_DAY, END_DAY),
+                "daily_total",
+                "PRIMARY_KEY_");
+    }
+
+    @Test
+    void shouldUseFutureIndex_whenSettlingDueTransactions() {
+        assertPlans(
+                () -> transactionRepository.findDueTransactions(
+                        END, 0L, PageRequest.ofSize(10)),
+                "transaction",
+                "transaction_future_id_idx");
+    }
+
+    @Test
+    void shouldUseUserDateIndexes_whenReadingMonthOfUser() {
+        assertPlans(
+                () -> budgetRepository.findAllByDateAndUser(YearMonth.now(), user),
+                "budget",
+                "budget_user_date_idx");
+        assertPlans(
+                () -> plannedIncomeRepository.findByDateAndUser(YearMonth.now(), user),
+                "planned_income",
+                "planned_income_user_date_idx");
+    }
+
+    // the optimizer of H2 only tells the indexes apart once the tables have rows and statistics
+    private void seed(Account account, Category category) {
+        jdbcTemplate.update(
+                "INSERT INTO transaction (id, amount, future, account_from_id, category_id,"
+                        + " owner_id, date, currency, hash, transaction_type)"
+                        + " SELECT x, 10, MOD(x, 50) = 0, ?, ?, ?,"
+                        + " DATEADD(DAY, -MOD(x, 730), CURRENT_TIMESTAMP), 'PLN',"
+                        + " CAST(RANDOM_UUID() AS VARCHAR),"
+                        + " CASE MOD(x, 3) WHEN 0 THEN 'EXPENSE' WHEN 1 THEN 'INCOME'"
+                        + " ELSE 'TRANSFER' END"
+                        + " FROM SYSTEM_RANGE(1, 5000) AS r (x)",
+                account.getId(),
+                category.getId(),
+                user.getId());
+        jdbcTemplate.update(
+                "INSERT INTO daily_total (user_id, date, category_id, sub_category_id,"
+                        + " transaction_type, amount) SELECT owner_id, CAST(date AS DATE),"
+                        + " category_id, 0, transaction_type, SUM(amount) FROM transaction"
+                        + " WHERE transaction_type <> 'TRANSFER'"
+                        + " GROUP BY owner_id, CAST(date AS DATE), category_id, transaction_type");
+        // categories of other users, so reading those of the user is worth an index
+        jdbcTemplate.update(
+                "INSERT INTO \"user\" (id, email, hash, password)"
+                        + " SELECT x, 'other' || x, CAST(RANDOM_UUID() AS VARCHAR), ''"
+                        + " FROM SYSTEM_RANGE(1000, 1499) AS r (x)");
+        jdbcTemplate.update(
+                "INSERT INTO category (id, archived, income, hash, name)"
+                        + " SELECT x, FALSE, FALSE, CAST(RANDOM_UUID() AS VARCHAR), 'other'"
+                        + " FROM SYSTEM_RANGE(1000, 1499) AS r (x)");
+        jdbcTemplate.update(
+                "INSERT INTO user_category (category_id, user_id)"
+                        + " SELECT x, x FROM SYSTEM_RANGE(1000, 1499) AS r (x)");
+        jdbcTemplate.update(
+                "INSERT INTO sub_category (id, parent_id, hash, name)"
+                        + " SELECT id, id, CAST(RANDOM_UUID() AS VARCHAR), 'other' FROM category"
+                        + " WHERE name = 'other'");
+        jdbcTemplate.update(
+                "INSERT INTO budget (id, date, planned_budget, category_id, user_id, hash)"
+                        + " SELECT x, DATEADD(MONTH, -x, CURRENT_DATE), 10, ?, ?,"
+                        + " CAST(RANDOM_UUID() AS VARCHAR) FROM SYSTEM_RANGE(1, 500) AS r (x)",
+                category.getId(),
+                user.getId());
+        jdbcTemplate.update(
+                "INSERT INTO planned_income (id, date, amount, user_id, hash)"
+                        + " SELECT x, DATEADD(MONTH, -x, CURRENT_DATE), 10, ?,"
+                        + " CAST(RANDOM_UUID() AS VARCHAR) FROM SYSTEM_RANGE(1, 500) AS r (x)",
+                user.getId());
+        jdbcTemplate.execute("ANALYZE");
+    }
+
+    private void assertPlans(Runnable query, String table, String index) {
+        List<String> plans = explain(query, table);
+        assertThat(plans).isNotEmpty().allSatisfy(plan -> assertThat(plan)
+                .contains(index)
+                .doesNotContain("tableScan"));
+    }
+
+    // the statistics are cleared whenever they are switched off
+    private List<String> explain(Runnable query, String table) {
+        jdbcTemplate.execute("SET QUERY_STATISTICS TRUE");
+        List<String> statements;
+        try {
+            transactionTemplate.executeWithoutResult(status -> query.run());
+            statements = jdbcTemplate.queryForList(
+                    "SELECT sql_statement FROM information_schema.query_statistics"
+                            + " WHERE LOWER(sql_statement) LIKE 'select%'"
+                            + " AND LOWER(sql_statement) NOT LIKE '%query_statistics%'",
+                    String.class);
+        } finally {
+            jdbcTemplate.execute("SET QUERY_STATISTICS FALSE");
+        }
+        return statements.stream()
+                .filter(sql -> sql.matches("(?is).*\\b(from|join)[\\s(]+" + table + "\\b.*"))
+                .map(this::explain)
+                .toList();
+    }
+
+    // the plan does not depend on the values, so every parameter is bound to null
+    private String explain(String sql) {
+        return jdbcTemplate
+                .query(
+                        "EXPLAIN " + sql,
+                        statement -> {
+                            int count = statement.getParameterMetaData().getParameterCount();
+                            for (int i = 1; i <= count; i++) {
+                                statement.setNull(i, Types.NULL);
+                            }
+                        },
+                        (resultSet, row) -> resultSet.getString(1))
+                .get(0);
+    }
+}